@@ -0,0 +1,204 @@
+package com.github.xubo.ceilinglayout.sample;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.github.xubo.ceilinglayout.CeilingLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 可滑动tab栏测试: 只创建可见范围内的tab, 滑出后回收复用; 作为CeilingLayout吸顶子View时横向拖动不被拦截
+ */
+@RunWith(AndroidJUnit4.class)
+public class SliderTabStripTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 120;
+    private static final int TAB_COUNT = 200;
+    private static final String TITLE_PREFIX = "Tab ";
+    private static final int SCREEN_HEIGHT = 1920;
+    private static final int HEADER_HEIGHT = 600;
+    /** 每个触摸事件移动的距离 */
+    private static final int MOVE_STEP = 40;
+
+    private SliderTabStrip sliderTabStrip;
+    private int contentWidth;
+    private int offscreenMargin;
+
+    private void setUpStrip() {
+        createStrip();
+        //不限宽度时测量宽度为内容宽度
+        sliderTabStrip.measure(View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        contentWidth = sliderTabStrip.getMeasuredWidth();
+        sliderTabStrip.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        sliderTabStrip.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * 头部、吸顶tab栏、内容组成的CeilingLayout, 已完成测量与布局
+     * @return
+     */
+    private CeilingLayout setUpCeilingLayout() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        createStrip();
+        CeilingLayout ceilingLayout = new CeilingLayout(context);
+        ceilingLayout.setOrientation(LinearLayout.VERTICAL);
+        ceilingLayout.setCeilingChildIndex(1);
+        ceilingLayout.addView(new View(context), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HEADER_HEIGHT));
+        ceilingLayout.addView(sliderTabStrip, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HEIGHT));
+        ceilingLayout.addView(new View(context), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        ceilingLayout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(SCREEN_HEIGHT, View.MeasureSpec.EXACTLY));
+        ceilingLayout.layout(0, 0, WIDTH, SCREEN_HEIGHT);
+        return ceilingLayout;
+    }
+
+    private void createStrip() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        offscreenMargin = (int) Utils.dpTopx(context, SliderTabStrip.OFFSCREEN_MARGIN_DP);
+        sliderTabStrip = new SliderTabStrip(context);
+        sliderTabStrip.setAdapter(new SliderTabStrip.Adapter() {
+            @Override
+            public int getCount() {
+                return TAB_COUNT;
+            }
+
+            @Override
+            public CharSequence getTitle(int position) {
+                return TITLE_PREFIX + position;
+            }
+        });
+    }
+
+    @Test
+    @UiThreadTest
+    public void layout_createsOnlyVisibleTabs() {
+        setUpStrip();
+        assertTrue(contentWidth > WIDTH * 2);
+        assertTrue(sliderTabStrip.getChildCount() < TAB_COUNT);
+        assertVisibleRange();
+    }
+
+    @Test
+    @UiThreadTest
+    public void scroll_recyclesTabsOutOfRange() {
+        setUpStrip();
+        Map<View, Boolean> createdTabs = new IdentityHashMap<View, Boolean>();
+        int maxChildCount = 0;
+        int step = WIDTH / 3;
+        for (int scrollX = 0; scrollX <= contentWidth - WIDTH; scrollX += step) {
+            sliderTabStrip.scrollTo(scrollX, 0);
+            assertVisibleRange();
+            for (int i = 0; i < sliderTabStrip.getChildCount(); i++) {
+                createdTabs.put(sliderTabStrip.getChildAt(i), Boolean.TRUE);
+            }
+            maxChildCount = Math.max(maxChildCount, sliderTabStrip.getChildCount());
+        }
+        //先回收再创建, 创建的tab数不超过同时显示的最多tab数
+        assertEquals(maxChildCount, createdTabs.size());
+        assertTrue(createdTabs.size() < TAB_COUNT);
+    }
+
+    @Test
+    @UiThreadTest
+    public void insideCeilingLayout_horizontalDragScrollsStrip() {
+        CeilingLayout ceilingLayout = setUpCeilingLayout();
+        int y = HEADER_HEIGHT + HEIGHT / 2;
+        drag(ceilingLayout, WIDTH - 100, y, -MOVE_STEP, 0, 15);
+        //横向拖动由tab栏处理, CeilingLayout不拦截也不折叠
+        assertTrue(sliderTabStrip.getScrollX() > 0);
+        assertEquals(0, ceilingLayout.getCollapseOffset());
+    }
+
+    @Test
+    @UiThreadTest
+    public void insideCeilingLayout_verticalDragCollapsesHeader() {
+        CeilingLayout ceilingLayout = setUpCeilingLayout();
+        int y = HEADER_HEIGHT + HEIGHT / 2;
+        drag(ceilingLayout, WIDTH / 2, y, 0, -MOVE_STEP, 10);
+        //从tab栏开始的竖直拖动仍由CeilingLayout折叠头部
+        assertTrue(ceilingLayout.getCollapseOffset() > 0);
+        assertEquals(0, sliderTabStrip.getScrollX());
+    }
+
+    /**
+     * 分发一次按下、多次移动、抬起的拖动
+     * @param parent
+     * @param x 按下位置
+     * @param y
+     * @param dx 每次移动的距离
+     * @param dy
+     * @param moveCount 移动次数
+     */
+    private static void drag(ViewGroup parent, int x, int y, int dx, int dy, int moveCount) {
+        long downTime = SystemClock.uptimeMillis();
+        long eventTime = downTime;
+        dispatch(parent, downTime, eventTime, MotionEvent.ACTION_DOWN, x, y);
+        for (int i = 0; i < moveCount; i++) {
+            x += dx;
+            y += dy;
+            eventTime += 8;
+            dispatch(parent, downTime, eventTime, MotionEvent.ACTION_MOVE, x, y);
+        }
+        dispatch(parent, downTime, eventTime, MotionEvent.ACTION_UP, x, y);
+    }
+
+    private static void dispatch(ViewGroup parent, long downTime, long eventTime, int action, int x, int y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        parent.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * 显示的tab连续, 覆盖可见范围, 且不超出可见范围外的边距
+     */
+    private void assertVisibleRange() {
+        List<TextView> tabs = new ArrayList<TextView>();
+        for (int i = 0; i < sliderTabStrip.getChildCount(); i++) {
+            tabs.add((TextView) sliderTabStrip.getChildAt(i));
+        }
+        assertFalse(tabs.isEmpty());
+        Collections.sort(tabs, new Comparator<TextView>() {
+            @Override
+            public int compare(TextView o1, TextView o2) {
+                return o1.getLeft() - o2.getLeft();
+            }
+        });
+        int rangeLeft = sliderTabStrip.getScrollX() - offscreenMargin;
+        int rangeRight = sliderTabStrip.getScrollX() + WIDTH + offscreenMargin;
+        TextView first = tabs.get(0);
+        TextView last = tabs.get(tabs.size() - 1);
+        assertTrue(first.getLeft() <= Math.max(rangeLeft, 0));
+        assertTrue(first.getRight() > rangeLeft);
+        assertTrue(last.getLeft() <= rangeRight);
+        assertTrue(last.getRight() >= Math.min(rangeRight, contentWidth));
+        for (int i = 1; i < tabs.size(); i++) {
+            assertEquals(tabs.get(i - 1).getRight(), tabs.get(i).getLeft());
+            assertEquals(getTabIndex(tabs.get(i - 1)) + 1, getTabIndex(tabs.get(i)));
+        }
+    }
+
+    private static int getTabIndex(TextView tab) {
+        return Integer.parseInt(tab.getText().toString().substring(TITLE_PREFIX.length()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.xubo.ceilinglayout.sample;
 
 import android.graphics.Color;
+import android.os.AsyncTask;
 import android.support.v4.app.FragmentManager;
 import android.support.v4.view.ViewPager;
 import android.support.v7.app.ActionBar;
@@ -40,6 +41,9 @@ public class MainActivity extends AppCompatActivity {
         main_tab2_rb = findViewById(R.id.main_tab2_rb);
         main_content_vp = findViewById(R.id.main_content_vp);
 
+        //tab文本在后台预处理, 通常在首次测量前完成, 主线程不排版
+        main_srg.setLabels(getResources().getStringArray(R.array.main_tab_titles), AsyncTask.THREAD_POOL_EXECUTOR);
+
         main_image_iv.getLayoutParams().height = Utils.getScreenWidth(this) * 540 / 1920;
 
         myPagerAdapter = new MyPagerAdapter(fragmentManager);
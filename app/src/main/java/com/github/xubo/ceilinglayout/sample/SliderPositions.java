@@ -0,0 +1,105 @@
+package com.github.xubo.ceilinglayout.sample;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：RadioButton位置表(基本类型数组, 每次测量计算一次, 滑块移动时无对象分配; 不依赖Android, 可在JVM上基准测试)
+ */
+public class SliderPositions {
+    /** 所有radiobutton的左边位置 */
+    private int[] childLefts = new int[0];
+    /** 所有radiobutton的宽度 */
+    private int[] childWidths = new int[0];
+    private int size;
+
+    /**
+     * 重置大小, 容量不足时才重新分配
+     * @param size
+     */
+    public void setSize(int size) {
+        if (childLefts.length < size) {
+            childLefts = new int[size];
+            childWidths = new int[size];
+        }
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 设置radiobutton位置
+     * @param index
+     * @param childLeft
+     * @param childWidth
+     */
+    public void set(int index, int childLeft, int childWidth) {
+        childLefts[index] = childLeft;
+        childWidths[index] = childWidth;
+    }
+
+    public int getChildLeft(int index) {
+        return childLefts[index];
+    }
+
+    public int getChildWidth(int index) {
+        return childWidths[index];
+    }
+
+    /**
+     * 查找x坐标所在的radiobutton索引(二分查找), 超出范围时返回第一个或最后一个
+     * @param x
+     * @return 没有radiobutton时返回-1
+     */
+    public int findIndex(int x) {
+        if (size == 0) {
+            return -1;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (childLefts[mid] <= x) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return Math.max(high, 0);
+    }
+
+    /**
+     * 滑块在指定radiobutton下居中时的左边位置
+     * @param index
+     * @param slideWidth 滑块宽度
+     * @return
+     */
+    public float getSlideLeft(int index, float slideWidth) {
+        return childLefts[index] + (childWidths[index] - slideWidth) / 2.0f;
+    }
+
+    /**
+     * ViewPage联动时滑块的左边位置
+     * @param selectIndex 当前索引
+     * @param movePercentage 滑动百分比(正数往右, 负数往左)
+     * @param slideWidth 滑块宽度
+     * @return
+     */
+    public float getSlideLeft(int selectIndex, float movePercentage, float slideWidth) {
+        float startX = getSlideLeft(selectIndex, slideWidth);
+        if (movePercentage > 0) {  //往右滑动
+            float stopRightX = 0;
+            if (selectIndex < size - 1) {
+                stopRightX = getSlideLeft(selectIndex + 1, slideWidth);
+            }
+            return startX + Math.abs(stopRightX - startX) * movePercentage;
+        } else {  //往左滑动
+            float stopLeftX = 0;
+            if (selectIndex > 0) {
+                stopLeftX = getSlideLeft(selectIndex - 1, slideWidth);
+            }
+            return startX + Math.abs(stopLeftX - startX) * movePercentage;
+        }
+    }
+}
@@ -6,7 +6,13 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.RectF;
+import android.os.Build;
 import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+import android.support.v4.text.PrecomputedTextCompat;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.widget.TextViewCompat;
 import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.view.View;
@@ -15,8 +21,7 @@ import android.widget.RadioButton;
 import android.widget.RadioGroup;
 import android.widget.Scroller;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Author：xubo
@@ -90,16 +95,24 @@ public class SliderRadioGroup extends RadioGroup {
     /** 选中索引 */
     private int selectIndex;
 
-    /** 所有radiobutton的左边位置 */
-    Map<Integer, Integer> childLeftMap = new HashMap<Integer, Integer>();
-    /** 所有radiobutton的宽度 */
-    Map<Integer, Integer> childWidthMap = new HashMap<Integer, Integer>();
+    /** 所有radiobutton的位置 */
+    private SliderPositions childPositions = new SliderPositions();
 
     private TextPaint textPaint;
     private Paint sliderPaint;
     private Paint bottomLinePaint;
     private Scroller scroller;
-    private Handler handler = new Handler();
+    /** 滑块动画帧是否已提交 */
+    private boolean isSlideFramePosted;
+    /** 滑块图层(API 18+在overlay中绘制, 移动时只改平移属性, 不重绘RadioButton) */
+    private SliderView sliderView;
+    /** 文本预处理批次, 只使用最后一次预处理的结果 */
+    private int labelGeneration;
+    /** 等待后台预处理的文本, 与pendingRadioButtons对应, 没有时为null */
+    private CharSequence[] pendingLabels;
+    private RadioButton[] pendingRadioButtons;
+    /** 预处理使用的排版参数 */
+    private PrecomputedTextCompat.Params[] pendingParams;
 
 
     public SliderRadioGroup(Context context, AttributeSet attrs) {
@@ -135,6 +148,10 @@ public class SliderRadioGroup extends RadioGroup {
 
         selectIndex = 0;
         scroller = new Scroller(context, new DecelerateInterpolator());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            sliderView = new SliderView(context, sliderPaint);
+            getOverlay().add(sliderView);
+        }
     }
 
     @Override
@@ -155,28 +172,30 @@ public class SliderRadioGroup extends RadioGroup {
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (pendingLabels != null) {  //测量前预处理还未完成, 直接设置文本, 不显示空白tab
+            applyLabels(labelGeneration, null);
+        }
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
         int childCount = getChildCount();
         if (childCount == 0) {
             return;
         }
-        childLeftMap.clear();
-        childWidthMap.clear();
+        childPositions.setSize(childCount);
         int currentIndexChildLeft = getPaddingLeft();
         for (int i = 0; i < childCount; i++) {
             View childView = getChildAt(i);
             int childWidth = childView.getMeasuredWidth();
             int childHeight = 0;
-            childWidthMap.put(i, childWidth);
             RadioGroup.LayoutParams childParams = (LayoutParams) childView.getLayoutParams();
-            childLeftMap.put(i, currentIndexChildLeft + childParams.leftMargin);
+            childPositions.set(i, currentIndexChildLeft + childParams.leftMargin, childWidth);
             currentIndexChildLeft += (childParams.leftMargin + childWidth + childParams.rightMargin);
             if (childView instanceof RadioButton) {
                 RadioButton radioButton = (RadioButton) childView;
-                textPaint.setTextSize(radioButton.getTextSize());
+                //与预处理时相同的画笔设置, 宽度缓存命中同一个key
+                textPaint.set(radioButton.getPaint());
                 childHeight = Utils.getTextHeightForInt(textPaint);
                 if (childWidthRefer == ChildWidthRefer.TEXT) {
-                    childWidth = Utils.getTextWidth(radioButton.getText().toString(), textPaint);
+                    childWidth = TextWidthCache.getTextWidth(radioButton.getText().toString(), textPaint);
                 }
             }
             if (minChildWidth == 0) {
@@ -202,22 +221,38 @@ public class SliderRadioGroup extends RadioGroup {
             }
         }
         if (slideBottom > 0) {
-            int childLeft = childLeftMap.get(selectIndex);
-            int childWidth = childWidthMap.get(selectIndex);
-            float slideLeft = childLeft + (childWidth - slideWidth) / 2.0f;
-            float slideRight = slideLeft + slideWidth;
-            float slideTop = slideBottom - slideHeight;
-            sliderRectF.set(slideLeft, slideTop, slideRight, slideBottom);
+            setSlideLeft(childPositions.getSlideLeft(selectIndex, slideWidth));
         } else {
             sliderRectF.set(0, 0, 0, 0);
         }
         bottomLineRectF.set(0, getMeasuredHeight() - bottomLineHeight, getMeasuredWidth(), getMeasuredHeight());
     }
 
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if (sliderView != null) {
+            sliderView.layout(0, 0, (int) Math.ceil(sliderRectF.width()), (int) Math.ceil(sliderRectF.height()));
+            sliderView.setRound(slideRound);
+            sliderView.setTranslationX(sliderRectF.left);
+            sliderView.setTranslationY(sliderRectF.top);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        scroller.abortAnimation();
+        removeCallbacks(slideFrameRunnable);
+        isSlideFramePosted = false;
+    }
+
     @Override
     protected void dispatchDraw(Canvas canvas) {
         super.dispatchDraw(canvas);
-        canvas.drawRoundRect(sliderRectF, slideRound, slideRound, sliderPaint);
+        if (sliderView == null) {
+            canvas.drawRoundRect(sliderRectF, slideRound, slideRound, sliderPaint);
+        }
         if (bottomLineHeight > 0) {
             canvas.drawRect(bottomLineRectF, bottomLinePaint);
         }
@@ -230,37 +265,11 @@ public class SliderRadioGroup extends RadioGroup {
      */
     public void move(int selectIndex, float movePercentage) {
         this.selectIndex = selectIndex;
-        if (slideHeight > 0 && slideBottom > 0 && childLeftMap.size() > 0 && childWidthMap.size() > 0) {
-            float slideLeft = 0;
-
-            int childLeft = childLeftMap.get(selectIndex);
-            int childWidth = childWidthMap.get(selectIndex);
-            float startX = childLeft + (childWidth - slideWidth) / 2.0f;
-
-            float stopLeftX = 0;
-            if (selectIndex > 0) {
-                int leftChildLeft = childLeftMap.get(selectIndex - 1);
-                int leftChildWidth = childWidthMap.get(selectIndex - 1);
-                stopLeftX = leftChildLeft + (leftChildWidth - slideWidth) / 2.0f;
-            }
-            float stopRightX = 0;
-            if (selectIndex < childLeftMap.size() - 1) {
-                int rightChildLeft = childLeftMap.get(selectIndex + 1);
-                int rightChildWidth = childWidthMap.get(selectIndex + 1);
-                stopRightX = rightChildLeft + (rightChildWidth - slideWidth) / 2.0f;
-            }
-
-            if (movePercentage > 0) {  //往右滑动
-                slideLeft = startX + Math.abs(stopRightX - startX) * movePercentage;
-            } else {  //往左滑动
-                slideLeft = startX + Math.abs(stopLeftX - startX) * movePercentage;
-            }
-
-            float slideRight = slideLeft + slideWidth;
-            float slideTop = slideBottom - slideHeight;
-            sliderRectF.set(slideLeft, slideTop, slideRight, slideBottom);
+        //ViewPager联动优先, 停止选择动画
+        scroller.forceFinished(true);
+        if (slideHeight > 0 && slideBottom > 0 && childPositions.size() > 0) {
+            setSlideLeft(childPositions.getSlideLeft(selectIndex, movePercentage, slideWidth));
         }
-        invalidate();
     }
 
     /**
@@ -272,43 +281,146 @@ public class SliderRadioGroup extends RadioGroup {
             return;
         }
         if (selectIndex != index) {
-            if (scroller.computeScrollOffset()) {
-                scroller.abortAnimation();
-                float slideLeft = scroller.getFinalX();
-                float slideRight = slideLeft + slideWidth;
-                float slideTop = slideBottom - slideHeight;
-                sliderRectF.set(slideLeft, slideTop, slideRight, slideBottom);
-                invalidate();
+            //从滑块当前位置(move联动或动画进行中的位置)开始, 避免跳动
+            int startX;
+            if (sliderRectF.width() > 0) {
+                startX = (int) sliderRectF.left;
+            } else {
+                startX = (int) childPositions.getSlideLeft(selectIndex, slideWidth);
             }
-            int startChildLeft = childLeftMap.get(selectIndex);
-            int startChildWidth = childWidthMap.get(selectIndex);
-            int startX = (int) (startChildLeft + (startChildWidth - slideWidth) / 2);
-            int stopChildLeft = childLeftMap.get(index);
-            int stopChildWidth = childWidthMap.get(index);
-            int stopX = (int) (stopChildLeft + (stopChildWidth - slideWidth) / 2);
+            int stopX = (int) childPositions.getSlideLeft(index, slideWidth);
             int dx = stopX - startX;
             scroller.startScroll(startX, 0, dx, 0, 200);
             this.selectIndex = index;
-            refresh();
+            postSlideFrame();
+        }
+    }
+
+    private void postSlideFrame() {
+        if (!isSlideFramePosted) {
+            isSlideFramePosted = true;
+            ViewCompat.postOnAnimation(this, slideFrameRunnable);
         }
     }
 
-    private Runnable runnable = new Runnable() {
+    /**
+     * 滑块动画, 每帧更新一次, 动画结束后停止
+     */
+    private Runnable slideFrameRunnable = new Runnable() {
         @Override
         public void run() {
+            isSlideFramePosted = false;
             if (scroller.computeScrollOffset()) {
-                float slideLeft = scroller.getCurrX();
-                float slideRight = slideLeft + slideWidth;
-                float slideTop = slideBottom - slideHeight;
-                sliderRectF.set(slideLeft, slideTop, slideRight, slideBottom);
-                invalidate();
-                refresh();
+                setSlideLeft(scroller.getCurrX());
+                if (!scroller.isFinished()) {
+                    postSlideFrame();
+                }
             }
         }
     };
 
-    private void refresh() {
-        handler.post(runnable);
+    /**
+     * 移动滑块
+     * 有滑块图层时只更新平移, 否则只刷新滑块移动前后的区域
+     * @param slideLeft
+     */
+    private void setSlideLeft(float slideLeft) {
+        float slideTop = slideBottom - slideHeight;
+        if (sliderView != null) {
+            sliderRectF.set(slideLeft, slideTop, slideLeft + slideWidth, slideBottom);
+            sliderView.setTranslationX(slideLeft);
+            sliderView.setTranslationY(slideTop);
+        } else {
+            invalidateSlider();
+            sliderRectF.set(slideLeft, slideTop, slideLeft + slideWidth, slideBottom);
+            invalidateSlider();
+        }
+    }
+
+    private void invalidateSlider() {
+        if (!sliderRectF.isEmpty()) {
+            //圆角抗锯齿边缘多刷新1px
+            invalidate((int) sliderRectF.left - 1, (int) sliderRectF.top - 1,
+                    (int) Math.ceil(sliderRectF.right) + 1, (int) Math.ceil(sliderRectF.bottom) + 1);
+        }
+    }
+
+    /**
+     * 设置RadioButton文本, 在后台线程预处理(排版与宽度测量)后再设置到RadioButton
+     * 布局中RadioButton不设置文本, 在setContentView后立即调用: 预处理通常在首次测量前完成, 主线程不排版;
+     * 宽度写入TextWidthCache, 测量时直接命中. 首次测量时仍未完成则直接设置文本, 不等待也不显示空白tab
+     * @param labels 文本, 与子View顺序对应
+     * @param executor 后台线程池
+     */
+    public void setLabels(CharSequence[] labels, Executor executor) {
+        final int generation = ++labelGeneration;
+        int childCount = Math.min(getChildCount(), labels.length);
+        final CharSequence[] texts = labels.clone();
+        final RadioButton[] radioButtons = new RadioButton[childCount];
+        final PrecomputedTextCompat.Params[] params = new PrecomputedTextCompat.Params[childCount];
+        final TextPaint[] paints = new TextPaint[childCount];
+        for (int i = 0; i < childCount; i++) {
+            View childView = getChildAt(i);
+            if (childView instanceof RadioButton) {
+                RadioButton radioButton = (RadioButton) childView;
+                radioButtons[i] = radioButton;
+                params[i] = TextViewCompat.getTextMetricsParams(radioButton);
+                //与onMeasure相同的画笔设置
+                paints[i] = new TextPaint(radioButton.getPaint());
+            }
+        }
+        pendingLabels = texts;
+        pendingRadioButtons = radioButtons;
+        pendingParams = params;
+        //未添加到窗口时View.post在API 24以下会放入当前线程的队列, 使用主线程Handler
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final PrecomputedTextCompat[] precomputedTexts = new PrecomputedTextCompat[radioButtons.length];
+                for (int i = 0; i < radioButtons.length; i++) {
+                    if (radioButtons[i] == null) {
+                        continue;
+                    }
+                    precomputedTexts[i] = PrecomputedTextCompat.create(texts[i], params[i]);
+                    TextWidthCache.getTextWidth(texts[i].toString(), paints[i]);
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyLabels(generation, precomputedTexts);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 设置等待中的文本, 每次setLabels只设置一次(预处理完成或首次测量时, 先到的生效)
+     * @param generation
+     * @param precomputedTexts 预处理结果, 测量时还未完成为null
+     */
+    private void applyLabels(int generation, @Nullable PrecomputedTextCompat[] precomputedTexts) {
+        if (generation != labelGeneration || pendingLabels == null) {
+            return;
+        }
+        CharSequence[] labels = pendingLabels;
+        RadioButton[] radioButtons = pendingRadioButtons;
+        PrecomputedTextCompat.Params[] params = pendingParams;
+        pendingLabels = null;
+        pendingRadioButtons = null;
+        pendingParams = null;
+        for (int i = 0; i < radioButtons.length; i++) {
+            RadioButton radioButton = radioButtons[i];
+            if (radioButton == null || radioButton.getParent() != this) {
+                continue;
+            }
+            if (precomputedTexts != null && params[i].equals(TextViewCompat.getTextMetricsParams(radioButton))) {
+                TextViewCompat.setPrecomputedText(radioButton, precomputedTexts[i]);
+            } else {  //测量时还未完成或预处理期间样式已改变
+                radioButton.setText(labels[i]);
+            }
+        }
     }
 
     /**
@@ -334,4 +446,31 @@ public class SliderRadioGroup extends RadioGroup {
     public void setSlideBottomMagin(float slideBottomMagin) {
         this.slideBottomMagin = slideBottomMagin;
     }
+
+    /**
+     * 滑块图层, 大小为滑块大小, 位置由平移决定
+     */
+    private static class SliderView extends View {
+        private final Paint sliderPaint;
+        private final RectF drawRectF = new RectF();
+        private float round;
+
+        SliderView(Context context, Paint sliderPaint) {
+            super(context);
+            this.sliderPaint = sliderPaint;
+        }
+
+        void setRound(float round) {
+            if (this.round != round) {
+                this.round = round;
+                invalidate();
+            }
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            drawRectF.set(0, 0, getWidth(), getHeight());
+            canvas.drawRoundRect(drawRectF, round, round, sliderPaint);
+        }
+    }
 }
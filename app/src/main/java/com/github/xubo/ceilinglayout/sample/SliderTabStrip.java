@@ -0,0 +1,602 @@
+package com.github.xubo.ceilinglayout.sample;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.support.v4.view.ViewCompat;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.animation.DecelerateInterpolator;
+import android.widget.OverScroller;
+import android.widget.RadioButton;
+import android.widget.Scroller;
+
+import java.util.ArrayList;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：可横向滑动的带滑块tab栏, 只创建并测量可见范围(含少量边距)内的tab, 滑出后回收复用, 适合上百个tab
+ * 与SliderRadioGroup相同的ViewPager联动方式(move/checkIndex), 联动时自动滚动使滑块保持可见
+ */
+
+public class SliderTabStrip extends ViewGroup {
+    /**
+     * tab数据
+     */
+    public interface Adapter {
+        /**
+         * tab数
+         * @return
+         */
+        int getCount();
+
+        /**
+         * tab文本
+         * @param position
+         * @return
+         */
+        CharSequence getTitle(int position);
+    }
+
+    /**
+     * 点击tab监听
+     */
+    public interface OnTabSelectedListener {
+        /**
+         * @param index 点击的tab索引
+         */
+        void onTabSelected(int index);
+    }
+
+    /** 默认滑块颜色 */
+    private static final int SLIDER_COLOR_DEFAULT = Color.parseColor("#FF6D32");
+    /** 默认滑块宽度所占比重 */
+    private static final float SLIDER_WIDTH_WEIGHT_DEFAULT = 0.8f;
+    /** 默认底部线颜色 */
+    private static final int BOTTOM_LINE_COLOR_DEFAULT = Color.parseColor("#EEEEEE");
+    /** 默认tab文本颜色 */
+    private static final int TAB_TEXT_COLOR_DEFAULT = Color.parseColor("#5E6671");
+    /** 可见范围外额外创建tab的宽度(dp) */
+    static final float OFFSCREEN_MARGIN_DP = 48;
+    /** 滑块动画时长 */
+    private static final int SLIDE_DURATION = 200;
+
+    /** 滑块区域 */
+    private RectF sliderRectF;
+    /** 滑块宽度所占比重(相对tab文本的最小宽度) */
+    private float slideWidthWeight;
+    /** 滑块宽度 */
+    private float slideWidth;
+    /** 滑块高度 */
+    private float slideHeight;
+    /** 滑块圆角 */
+    private float slideRound;
+    /** 底部线区域 */
+    private RectF bottomLineRectF;
+    /** 底部线的高度 */
+    private float bottomLineHeight;
+    /** tab文本大小 */
+    private float tabTextSize;
+    /** tab文本颜色 */
+    private ColorStateList tabTextColor;
+    /** tab左右内边距(tab宽度为文本宽度加内边距) */
+    private int tabPadding;
+    /** tab固定宽度, 小于等于0时按文本宽度 */
+    private int tabWidth;
+    /** 可见范围外额外创建tab的宽度 */
+    private int offscreenMargin;
+
+    /** 滑块所在索引(ViewPager当前页) */
+    private int selectIndex;
+    /** 选中(高亮)的tab索引 */
+    private int checkedIndex;
+
+    private Adapter adapter;
+    private OnTabSelectedListener onTabSelectedListener;
+    /** 所有tab的位置, 只根据文本宽度计算, 不创建View */
+    private SliderPositions childPositions = new SliderPositions();
+    /** tab位置需要重新计算 */
+    private boolean isPositionsDirty = true;
+    /** 内容宽度 */
+    private int contentWidth;
+    /** 正在显示的tab, key为索引 */
+    private SparseArray<RadioButton> activeTabs = new SparseArray<RadioButton>();
+    /** 回收的tab */
+    private ArrayList<RadioButton> recycledTabs = new ArrayList<RadioButton>();
+
+    private TextPaint textPaint;
+    private Paint sliderPaint;
+    private Paint bottomLinePaint;
+    /** 滑块动画 */
+    private Scroller slideScroller;
+    /** 滑块动画帧是否已提交 */
+    private boolean isSlideFramePosted;
+    /** tab栏惯性滑动 */
+    private OverScroller flingScroller;
+    private VelocityTracker velocityTracker;
+    private int touchSlop;
+    private int minimumVelocity;
+    private int maximumVelocity;
+    private float downX;
+    private float downY;
+    private float lastX;
+    /** 手指横向拖动中 */
+    private boolean isBeingDragged;
+
+    public SliderTabStrip(Context context) {
+        this(context, null);
+    }
+
+    public SliderTabStrip(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.SliderTabStrip, 0, 0);
+        slideRound = typedArray.getDimension(R.styleable.SliderTabStrip_slider_round, Utils.dpTopx(context, 1.0f));
+        slideHeight = typedArray.getDimension(R.styleable.SliderTabStrip_slider_height, Utils.dpTopx(context, 2.0f));
+        int sliderColor = typedArray.getColor(R.styleable.SliderTabStrip_slider_color, SLIDER_COLOR_DEFAULT);
+        slideWidthWeight = typedArray.getFloat(R.styleable.SliderTabStrip_slider_width_weight, SLIDER_WIDTH_WEIGHT_DEFAULT);
+        if (slideWidthWeight > 1.0 || slideWidthWeight < 0.0f) {
+            slideWidthWeight = SLIDER_WIDTH_WEIGHT_DEFAULT;
+        }
+        bottomLineHeight = typedArray.getDimension(R.styleable.SliderTabStrip_bottom_line_height, 0);
+        int bottomLineColor = typedArray.getColor(R.styleable.SliderTabStrip_bottom_line_color, BOTTOM_LINE_COLOR_DEFAULT);
+        tabTextSize = typedArray.getDimension(R.styleable.SliderTabStrip_tab_text_size, Utils.dpTopx(context, 14.0f));
+        tabTextColor = typedArray.getColorStateList(R.styleable.SliderTabStrip_tab_text_color);
+        if (tabTextColor == null) {
+            tabTextColor = ColorStateList.valueOf(TAB_TEXT_COLOR_DEFAULT);
+        }
+        tabPadding = typedArray.getDimensionPixelSize(R.styleable.SliderTabStrip_tab_padding, (int) Utils.dpTopx(context, 12.0f));
+        tabWidth = typedArray.getDimensionPixelSize(R.styleable.SliderTabStrip_tab_width, 0);
+        typedArray.recycle();
+
+        sliderRectF = new RectF();
+        bottomLineRectF = new RectF();
+        textPaint = new TextPaint();
+        textPaint.setTextSize(tabTextSize);
+        sliderPaint = new Paint();
+        sliderPaint.setAntiAlias(true);
+        sliderPaint.setColor(sliderColor);
+        bottomLinePaint = new Paint();
+        bottomLinePaint.setAntiAlias(true);
+        bottomLinePaint.setColor(bottomLineColor);
+        slideScroller = new Scroller(context, new DecelerateInterpolator());
+        flingScroller = new OverScroller(context);
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        touchSlop = configuration.getScaledTouchSlop();
+        minimumVelocity = configuration.getScaledMinimumFlingVelocity();
+        maximumVelocity = configuration.getScaledMaximumFlingVelocity();
+        offscreenMargin = (int) Utils.dpTopx(context, OFFSCREEN_MARGIN_DP);
+        setWillNotDraw(false);
+    }
+
+    /**
+     * 设置tab数据, 选中索引重置为0
+     * @param adapter
+     */
+    public void setAdapter(Adapter adapter) {
+        this.adapter = adapter;
+        selectIndex = 0;
+        checkedIndex = 0;
+        notifyDataSetChanged();
+        scrollTo(0, 0);
+    }
+
+    /**
+     * tab数据改变后调用
+     */
+    public void notifyDataSetChanged() {
+        recycleAllTabs();
+        isPositionsDirty = true;
+        sliderRectF.setEmpty();
+        requestLayout();
+        invalidate();
+    }
+
+    public void setOnTabSelectedListener(OnTabSelectedListener onTabSelectedListener) {
+        this.onTabSelectedListener = onTabSelectedListener;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        updatePositions();
+        int width = getDefaultSize(contentWidth, widthMeasureSpec);
+        int textHeight = Utils.getTextHeightForInt(textPaint);
+        int height = resolveSize((int) (textHeight + slideHeight + bottomLineHeight) + getPaddingTop() + getPaddingBottom(), heightMeasureSpec);
+        setMeasuredDimension(width, height);
+        for (int i = 0; i < activeTabs.size(); i++) {
+            measureTab(activeTabs.keyAt(i), activeTabs.valueAt(i));
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        float slideBottom = getHeight() - bottomLineHeight;
+        if (sliderRectF.isEmpty() && childPositions.size() > 0) {
+            //首次布局, 滑块放在选中tab下并滚动到可见
+            float slideLeft = childPositions.getSlideLeft(selectIndex, slideWidth);
+            sliderRectF.set(slideLeft, slideBottom - slideHeight, slideLeft + slideWidth, slideBottom);
+            scrollTo(getSliderScrollX(), 0);
+        } else {
+            sliderRectF.offsetTo(sliderRectF.left, slideBottom - slideHeight);
+            scrollTo(clampScrollX(getScrollX()), 0);
+        }
+        fillTabs();
+        for (int i = 0; i < activeTabs.size(); i++) {
+            layoutTab(activeTabs.keyAt(i), activeTabs.valueAt(i));
+        }
+    }
+
+    /**
+     * 根据文本宽度计算所有tab的位置, 不创建View
+     */
+    private void updatePositions() {
+        if (!isPositionsDirty) {
+            return;
+        }
+        isPositionsDirty = false;
+        int count = adapter == null ? 0 : adapter.getCount();
+        childPositions.setSize(count);
+        int currentIndexChildLeft = getPaddingLeft();
+        int minTextWidth = 0;
+        for (int i = 0; i < count; i++) {
+            int textWidth = TextWidthCache.getTextWidth(String.valueOf(adapter.getTitle(i)), textPaint);
+            int childWidth = tabWidth > 0 ? tabWidth : textWidth + tabPadding * 2;
+            childPositions.set(i, currentIndexChildLeft, childWidth);
+            currentIndexChildLeft += childWidth;
+            minTextWidth = i == 0 ? textWidth : Math.min(textWidth, minTextWidth);
+        }
+        contentWidth = currentIndexChildLeft + getPaddingRight();
+        slideWidth = minTextWidth * slideWidthWeight;
+        if (selectIndex >= count) {
+            selectIndex = Math.max(count - 1, 0);
+        }
+        if (checkedIndex >= count) {
+            checkedIndex = Math.max(count - 1, 0);
+        }
+    }
+
+    /**
+     * 回收可见范围外的tab, 创建可见范围内缺少的tab
+     */
+    private void fillTabs() {
+        int count = childPositions.size();
+        if (isPositionsDirty || count == 0 || getWidth() == 0) {
+            recycleAllTabs();
+            return;
+        }
+        int firstIndex = childPositions.findIndex(getScrollX() - offscreenMargin);
+        int lastIndex = childPositions.findIndex(getScrollX() + getWidth() + offscreenMargin);
+        for (int i = activeTabs.size() - 1; i >= 0; i--) {
+            int index = activeTabs.keyAt(i);
+            if (index < firstIndex || index > lastIndex) {
+                RadioButton tab = activeTabs.valueAt(i);
+                activeTabs.removeAt(i);
+                removeViewInLayout(tab);
+                recycledTabs.add(tab);
+            }
+        }
+        for (int index = firstIndex; index <= lastIndex; index++) {
+            if (activeTabs.get(index) != null) {
+                continue;
+            }
+            //先绑定再添加, 文本改变不会请求父布局重新布局
+            RadioButton tab = obtainTab();
+            tab.setText(adapter.getTitle(index));
+            tab.setChecked(index == checkedIndex);
+            activeTabs.put(index, tab);
+            addViewInLayout(tab, -1, tab.getLayoutParams(), true);
+            measureTab(index, tab);
+            layoutTab(index, tab);
+        }
+    }
+
+    private void recycleAllTabs() {
+        for (int i = 0; i < activeTabs.size(); i++) {
+            recycledTabs.add(activeTabs.valueAt(i));
+        }
+        activeTabs.clear();
+        removeAllViewsInLayout();
+    }
+
+    private RadioButton obtainTab() {
+        int size = recycledTabs.size();
+        if (size > 0) {
+            return recycledTabs.remove(size - 1);
+        }
+        RadioButton tab = new RadioButton(getContext());
+        tab.setButtonDrawable((Drawable) null);
+        ViewCompat.setBackground(tab, null);
+        tab.setPadding(0, 0, 0, 0);
+        tab.setGravity(Gravity.CENTER);
+        tab.setSingleLine();
+        tab.setTextSize(TypedValue.COMPLEX_UNIT_PX, tabTextSize);
+        tab.setTextColor(tabTextColor);
+        //点击由tab栏处理
+        tab.setClickable(false);
+        tab.setLayoutParams(new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.MATCH_PARENT));
+        return tab;
+    }
+
+    private void measureTab(int index, RadioButton tab) {
+        int widthSpec = MeasureSpec.makeMeasureSpec(childPositions.getChildWidth(index), MeasureSpec.EXACTLY);
+        int heightSpec = MeasureSpec.makeMeasureSpec(Math.max(getMeasuredHeight() - getPaddingTop() - getPaddingBottom(), 0), MeasureSpec.EXACTLY);
+        tab.measure(widthSpec, heightSpec);
+    }
+
+    private void layoutTab(int index, RadioButton tab) {
+        int childLeft = childPositions.getChildLeft(index);
+        tab.layout(childLeft, getPaddingTop(), childLeft + tab.getMeasuredWidth(), getPaddingTop() + tab.getMeasuredHeight());
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        if (!isLayoutRequested()) {
+            fillTabs();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        slideScroller.abortAnimation();
+        flingScroller.abortAnimation();
+        removeCallbacks(slideFrameRunnable);
+        isSlideFramePosted = false;
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        canvas.drawRoundRect(sliderRectF, slideRound, slideRound, sliderPaint);
+        if (bottomLineHeight > 0) {
+            bottomLineRectF.set(getScrollX(), getHeight() - bottomLineHeight, getScrollX() + getWidth(), getHeight());
+            canvas.drawRect(bottomLineRectF, bottomLinePaint);
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        int action = ev.getActionMasked();
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                downX = lastX = ev.getX();
+                downY = ev.getY();
+                //惯性滑动中按下直接接管
+                isBeingDragged = !flingScroller.isFinished();
+                flingScroller.abortAnimation();
+                break;
+            case MotionEvent.ACTION_MOVE:
+                checkStartDrag(ev);
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                isBeingDragged = false;
+                break;
+        }
+        return isBeingDragged;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
+        }
+        velocityTracker.addMovement(event);
+        int action = event.getActionMasked();
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                downX = lastX = event.getX();
+                downY = event.getY();
+                flingScroller.abortAnimation();
+                break;
+            case MotionEvent.ACTION_MOVE:
+                checkStartDrag(event);
+                if (isBeingDragged) {
+                    float x = event.getX();
+                    scrollTo(clampScrollX(getScrollX() + (int) (lastX - x)), 0);
+                    lastX = x;
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+                if (isBeingDragged) {
+                    velocityTracker.computeCurrentVelocity(1000, maximumVelocity);
+                    int velocityX = (int) velocityTracker.getXVelocity();
+                    if (Math.abs(velocityX) > minimumVelocity) {
+                        flingScroller.fling(getScrollX(), 0, -velocityX, 0, 0, getMaxScrollX(), 0, 0);
+                        ViewCompat.postInvalidateOnAnimation(this);
+                    }
+                } else {
+                    int x = (int) event.getX() + getScrollX();
+                    if (childPositions.size() > 0 && x >= getPaddingLeft() && x < contentWidth - getPaddingRight()) {
+                        selectTab(childPositions.findIndex(x));
+                    }
+                }
+                endDrag();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                break;
+        }
+        return true;
+    }
+
+    private void checkStartDrag(MotionEvent ev) {
+        float x = ev.getX();
+        float dx = Math.abs(x - downX);
+        if (!isBeingDragged && dx > touchSlop && dx > Math.abs(ev.getY() - downY)) {
+            isBeingDragged = true;
+            lastX = x;
+            //横向拖动时不让CeilingLayout等父布局拦截
+            ViewParent parent = getParent();
+            if (parent != null) {
+                parent.requestDisallowInterceptTouchEvent(true);
+            }
+        }
+    }
+
+    private void endDrag() {
+        isBeingDragged = false;
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    @Override
+    public void computeScroll() {
+        if (flingScroller.computeScrollOffset()) {
+            scrollTo(clampScrollX(flingScroller.getCurrX()), 0);
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+    }
+
+    private int getMaxScrollX() {
+        return Math.max(contentWidth - getWidth(), 0);
+    }
+
+    private int clampScrollX(int scrollX) {
+        return Math.max(0, Math.min(scrollX, getMaxScrollX()));
+    }
+
+    /**
+     * 滑块居中时的滚动位置
+     * @return
+     */
+    private int getSliderScrollX() {
+        return clampScrollX((int) (sliderRectF.centerX() - getWidth() / 2f));
+    }
+
+    /**
+     * 滚动使滑块可见(手指拖动或惯性滑动tab栏时不自动滚动)
+     */
+    private void scrollToSlider() {
+        if (!isBeingDragged && flingScroller.isFinished()) {
+            scrollTo(getSliderScrollX(), 0);
+        }
+    }
+
+    private void selectTab(int index) {
+        if (index != checkedIndex) {
+            setCheckedIndex(index);
+            if (onTabSelectedListener != null) {
+                onTabSelectedListener.onTabSelected(index);
+            }
+        }
+    }
+
+    /**
+     * 设置选中(高亮)的tab, 不移动滑块
+     * @param index
+     */
+    public void setCheckedIndex(int index) {
+        RadioButton oldTab = activeTabs.get(checkedIndex);
+        if (oldTab != null) {
+            oldTab.setChecked(false);
+        }
+        checkedIndex = index;
+        RadioButton newTab = activeTabs.get(checkedIndex);
+        if (newTab != null) {
+            newTab.setChecked(true);
+        }
+    }
+
+    public int getCheckedIndex() {
+        return checkedIndex;
+    }
+
+    /**
+     * ViewPage联动
+     * @param selectIndex
+     * @param movePercentage
+     */
+    public void move(int selectIndex, float movePercentage) {
+        this.selectIndex = selectIndex;
+        //ViewPager联动优先, 停止选择动画
+        slideScroller.forceFinished(true);
+        if (slideHeight > 0 && childPositions.size() > 0 && selectIndex < childPositions.size()) {
+            setSlideLeft(childPositions.getSlideLeft(selectIndex, movePercentage, slideWidth));
+            scrollToSlider();
+        }
+    }
+
+    /**
+     * 选择索引
+     * @param index
+     */
+    public void checkIndex(int index) {
+        if (index < 0 || index > childPositions.size() - 1) {
+            return;
+        }
+        setCheckedIndex(index);
+        if (selectIndex != index) {
+            //从滑块当前位置(move联动或动画进行中的位置)开始, 避免跳动
+            int startX;
+            if (sliderRectF.width() > 0) {
+                startX = (int) sliderRectF.left;
+            } else {
+                startX = (int) childPositions.getSlideLeft(selectIndex, slideWidth);
+            }
+            int stopX = (int) childPositions.getSlideLeft(index, slideWidth);
+            slideScroller.startScroll(startX, 0, stopX - startX, 0, SLIDE_DURATION);
+            this.selectIndex = index;
+            postSlideFrame();
+        }
+    }
+
+    /**
+     * 移动滑块, 只刷新滑块移动前后的区域
+     * @param slideLeft
+     */
+    private void setSlideLeft(float slideLeft) {
+        float slideBottom = getHeight() - bottomLineHeight;
+        invalidateSlider();
+        sliderRectF.set(slideLeft, slideBottom - slideHeight, slideLeft + slideWidth, slideBottom);
+        invalidateSlider();
+    }
+
+    private void invalidateSlider() {
+        if (!sliderRectF.isEmpty()) {
+            //滑块坐标为内容坐标, 与invalidate(l, t, r, b)相同; 圆角抗锯齿边缘多刷新1px
+            invalidate((int) sliderRectF.left - 1, (int) sliderRectF.top - 1,
+                    (int) Math.ceil(sliderRectF.right) + 1, (int) Math.ceil(sliderRectF.bottom) + 1);
+        }
+    }
+
+    private void postSlideFrame() {
+        if (!isSlideFramePosted) {
+            isSlideFramePosted = true;
+            ViewCompat.postOnAnimation(this, slideFrameRunnable);
+        }
+    }
+
+    /**
+     * 滑块动画, 每帧更新一次, 动画结束后停止
+     */
+    private Runnable slideFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isSlideFramePosted = false;
+            if (slideScroller.computeScrollOffset()) {
+                setSlideLeft(slideScroller.getCurrX());
+                scrollToSlider();
+                if (!slideScroller.isFinished()) {
+                    postSlideFrame();
+                }
+            }
+        }
+    };
+}
@@ -0,0 +1,103 @@
+package com.github.xubo.ceilinglayout.sample;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.util.LruCache;
+
+import java.util.Locale;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：文本宽度缓存, 以文本和影响宽度的画笔属性(字体大小、字体、横向缩放、字间距、字体特性、语言)为key, 超出容量时淘汰最久未使用的
+ */
+
+public class TextWidthCache {
+    /** 默认缓存条数 */
+    private static final int MAX_SIZE_DEFAULT = 256;
+
+    private static final LruCache<Key, Integer> widthCache = new LruCache<Key, Integer>(MAX_SIZE_DEFAULT);
+
+    /**
+     * 获取文本的宽度, 未命中时整段测量一次
+     * @param text
+     * @param paint 测量用的画笔, 同一控件的各处调用应使用相同设置的画笔(如TextView.getPaint()的副本)
+     * @return
+     */
+    public static int getTextWidth(String text, Paint paint) {
+        Key key = new Key(text, paint);
+        Integer textWidth = widthCache.get(key);
+        if (textWidth == null) {
+            textWidth = Utils.getTextWidth(text, paint);
+            widthCache.put(key, textWidth);
+        }
+        return textWidth;
+    }
+
+    /**
+     * 清空缓存(如切换语言后)
+     */
+    public static void clear() {
+        widthCache.evictAll();
+    }
+
+    private static class Key {
+        private final String text;
+        private final float textSize;
+        private final Typeface typeface;
+        private final float textScaleX;
+        private final float letterSpacing;
+        private final String fontFeatureSettings;
+        private final Locale textLocale;
+
+        Key(String text, Paint paint) {
+            this.text = text;
+            textSize = paint.getTextSize();
+            typeface = paint.getTypeface();
+            textScaleX = paint.getTextScaleX();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                letterSpacing = paint.getLetterSpacing();
+                fontFeatureSettings = paint.getFontFeatureSettings();
+            } else {
+                letterSpacing = 0;
+                fontFeatureSettings = null;
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                textLocale = paint.getTextLocale();
+            } else {
+                textLocale = null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return textSize == key.textSize && textScaleX == key.textScaleX && letterSpacing == key.letterSpacing
+                    && text.equals(key.text) && isEqual(typeface, key.typeface)
+                    && isEqual(fontFeatureSettings, key.fontFeatureSettings) && isEqual(textLocale, key.textLocale);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text.hashCode();
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + (typeface == null ? 0 : typeface.hashCode());
+            result = 31 * result + Float.floatToIntBits(textScaleX);
+            result = 31 * result + Float.floatToIntBits(letterSpacing);
+            result = 31 * result + (fontFeatureSettings == null ? 0 : fontFeatureSettings.hashCode());
+            result = 31 * result + (textLocale == null ? 0 : textLocale.hashCode());
+            return result;
+        }
+
+        private static boolean isEqual(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+}
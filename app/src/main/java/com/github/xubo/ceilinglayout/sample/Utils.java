@@ -43,20 +43,12 @@ public class Utils {
     }
 
     /**
-     * 获取文本的宽度
+     * 获取文本的宽度(整段测量一次, 需要缓存时使用TextWidthCache)
      *
      * @return
      */
     public static int getTextWidth(String text, Paint paint) {
-        int textWidth = 0;
-        for (int index = 0; index < text.length(); index++) {
-            char ch = text.charAt(index);
-            float[] widths = new float[1];
-            String srt = String.valueOf(ch);
-            paint.getTextWidths(srt, widths);
-            textWidth += widths[0];
-        }
-        return textWidth;
+        return (int) paint.measureText(text);
     }
 
     /**
@@ -0,0 +1,160 @@
+package com.github.xubo.ceilinglayout.benchmark;
+
+import com.github.xubo.ceilinglayout.engine.CeilingScrollEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：吸顶联滑计算基准测试(拖动、惯性、惯性联动交接), 每次操作为一次完整手势
+ */
+@State(Scope.Thread)
+public class CeilingScrollEngineBenchmark {
+    /** 屏幕密度(xxhdpi) */
+    private static final float DENSITY = 3.0f;
+    /** 吸顶可滑动距离 */
+    private static final int SCROLL_RANGE = 540;
+    /** 一帧时长(ms) */
+    private static final int FRAME_MILLIS = 16;
+    /** 拖动事件数 */
+    private static final int DRAG_EVENTS = 120;
+    /** 拖动每次事件距离 */
+    private static final int DRAG_STEP = 12;
+    /** 惯性速度(px/s) */
+    private static final int FLING_VELOCITY = 12000;
+
+    private Host host;
+    private CeilingScrollEngine engine;
+    private long frameTime;
+
+    @Setup
+    public void setup() {
+        host = new Host();
+        engine = new CeilingScrollEngine(DENSITY, host);
+        engine.setFlingVelocityRange(150, 24000);
+        engine.setScrollRange(SCROLL_RANGE);
+    }
+
+    /**
+     * 联动子View拖动: 先上滑至吸顶, 再下滑展开
+     * @return
+     */
+    @Benchmark
+    public int nestedDrag() {
+        host.scrollOffset = 0;
+        host.childScrollOffset = 0;
+        int consumed = 0;
+        for (int i = 0; i < DRAG_EVENTS; i++) {
+            consumed += engine.preScroll(DRAG_STEP, true);
+        }
+        for (int i = 0; i < DRAG_EVENTS; i++) {
+            consumed += engine.preScroll(-DRAG_STEP, true);
+        }
+        return consumed + host.scrollOffset;
+    }
+
+    /**
+     * 本身拖动: 上滑越界后下滑越界
+     * @return
+     */
+    @Benchmark
+    public int selfDrag() {
+        host.scrollOffset = 0;
+        int clamped = 0;
+        for (int i = 0; i < DRAG_EVENTS; i++) {
+            if (engine.overScroll(DRAG_STEP)) {
+                clamped++;
+            }
+        }
+        for (int i = 0; i < DRAG_EVENTS; i++) {
+            if (engine.overScroll(-DRAG_STEP)) {
+                clamped++;
+            }
+        }
+        return clamped + host.scrollOffset;
+    }
+
+    /**
+     * 本身惯性滑动到结束
+     * @return
+     */
+    @Benchmark
+    public int fling() {
+        host.scrollOffset = 0;
+        engine.abortAnimation();
+        engine.fling(FLING_VELOCITY, frameTime);
+        return runFrames();
+    }
+
+    /**
+     * 联动子View惯性: 向上由本身吸顶后把剩余速度交给子View, 向下由子View回到顶部后本身展开
+     * @return
+     */
+    @Benchmark
+    public int flingHandOff() {
+        host.scrollOffset = 0;
+        host.childScrollOffset = 0;
+        engine.abortAnimation();
+        engine.nestedPreFling(FLING_VELOCITY, frameTime);
+        int frames = runFrames();
+        host.scrollOffset = SCROLL_RANGE;
+        host.childScrollOffset = 2000;
+        engine.nestedPreFling(-FLING_VELOCITY, frameTime);
+        return frames + runFrames();
+    }
+
+    private int runFrames() {
+        int frames = 0;
+        while (engine.computeScroll(frameTime)) {
+            frameTime += FRAME_MILLIS;
+            frames++;
+        }
+        return frames + host.scrollOffset;
+    }
+
+    private static class Host implements CeilingScrollEngine.Callback {
+        int scrollOffset;
+        int childScrollOffset;
+        int unconsumed;
+        int handOffVelocity;
+
+        @Override
+        public int getScrollOffset() {
+            return scrollOffset;
+        }
+
+        @Override
+        public void scrollOffsetTo(int scrollOffset) {
+            this.scrollOffset = scrollOffset;
+        }
+
+        @Override
+        public int getChildScrollOffset() {
+            return childScrollOffset;
+        }
+
+        @Override
+        public void onFlingScrolled(int dyConsumed, int dyUnconsumed) {
+            unconsumed += dyUnconsumed;
+        }
+
+        @Override
+        public boolean canChildScrollVertically(int direction) {
+            return direction < 0 ? childScrollOffset > 0 : true;
+        }
+
+        @Override
+        public void scrollChildBy(int dy) {
+            childScrollOffset = Math.max(childScrollOffset + dy, 0);
+        }
+
+        @Override
+        public void onFlingHandOff(int velocityY) {
+            handOffVelocity = velocityY;
+        }
+    }
+}
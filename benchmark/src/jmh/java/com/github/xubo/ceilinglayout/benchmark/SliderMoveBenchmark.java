@@ -0,0 +1,51 @@
+package com.github.xubo.ceilinglayout.benchmark;
+
+import com.github.xubo.ceilinglayout.sample.SliderPositions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：SliderRadioGroup.move滑块位置计算基准测试, 每次操作为ViewPager从第一页逐页滑到最后一页(50个tab, 每页16帧)
+ */
+@State(Scope.Thread)
+public class SliderMoveBenchmark {
+    /** tab数 */
+    private static final int TAB_COUNT = 50;
+    /** tab宽度 */
+    private static final int TAB_WIDTH = 216;
+    /** 每页滑动帧数 */
+    private static final int FRAMES_PER_PAGE = 16;
+    /** 滑块宽度 */
+    private static final float SLIDE_WIDTH = 96;
+
+    private SliderPositions childPositions;
+
+    @Setup
+    public void setup() {
+        childPositions = new SliderPositions();
+        childPositions.setSize(TAB_COUNT);
+        for (int i = 0; i < TAB_COUNT; i++) {
+            childPositions.set(i, i * TAB_WIDTH, TAB_WIDTH);
+        }
+    }
+
+    /**
+     * 逐页往右滑动
+     * @return
+     */
+    @Benchmark
+    public float moveAcrossTabs() {
+        float slideLeft = 0;
+        for (int selectIndex = 0; selectIndex < TAB_COUNT - 1; selectIndex++) {
+            for (int frame = 0; frame < FRAMES_PER_PAGE; frame++) {
+                slideLeft += childPositions.getSlideLeft(selectIndex, (float) frame / FRAMES_PER_PAGE, SLIDE_WIDTH);
+            }
+        }
+        return slideLeft;
+    }
+}
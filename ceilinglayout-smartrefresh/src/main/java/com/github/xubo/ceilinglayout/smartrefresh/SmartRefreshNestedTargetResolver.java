@@ -0,0 +1,32 @@
+package com.github.xubo.ceilinglayout.smartrefresh;
+
+import android.support.v4.view.NestedScrollingChild;
+import android.view.View;
+
+import com.github.xubo.ceilinglayout.NestedTargetResolver;
+import com.scwang.smartrefresh.layout.SmartRefreshLayout;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：SmartRefreshLayout联动目标View解析器
+ * 使用: ceilingLayout.addNestedTargetResolver(new SmartRefreshNestedTargetResolver());
+ */
+public class SmartRefreshNestedTargetResolver implements NestedTargetResolver {
+
+    @Override
+    public View getNestedTarget(View target) {
+        if (target instanceof SmartRefreshLayout) {
+            SmartRefreshLayout smartRefreshLayout = (SmartRefreshLayout) target;
+            for (int i = 0; i < smartRefreshLayout.getChildCount(); i++) {
+                View child = smartRefreshLayout.getChildAt(i);
+                if (child instanceof NestedScrollingChild) {
+                    View nestedTarget = getNestedTarget(child);
+                    return nestedTarget != null ? nestedTarget : child;
+                }
+            }
+            return target;
+        }
+        return null;
+    }
+}
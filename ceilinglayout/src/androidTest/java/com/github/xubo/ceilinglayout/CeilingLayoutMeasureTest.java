@@ -0,0 +1,104 @@
+package com.github.xubo.ceilinglayout;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * CeilingLayout测量次数测试
+ */
+@RunWith(AndroidJUnit4.class)
+public class CeilingLayoutMeasureTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private CeilingLayout ceilingLayout;
+    private CountingView bannerView;
+    private CountingView matchParentView;
+    private CountingView ceilingView;
+    private CountingView contentView;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        ceilingLayout = new CeilingLayout(context);
+        ceilingLayout.setCeilingChildIndex(2);
+        bannerView = new CountingView(context, 500);
+        matchParentView = new CountingView(context, 300);
+        ceilingView = new CountingView(context, 120);
+        contentView = new CountingView(context, 0);
+        ceilingLayout.addView(bannerView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        ceilingLayout.addView(matchParentView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        ceilingLayout.addView(ceilingView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        ceilingLayout.addView(contentView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+    }
+
+    @Test
+    public void measure_eachChildMeasuredOnce() {
+        measure();
+        assertEquals(4, ceilingLayout.getChildMeasureCount());
+        assertEquals(1, bannerView.measureCount);
+        assertEquals(1, matchParentView.measureCount);
+        assertEquals(1, ceilingView.measureCount);
+        assertEquals(1, contentView.measureCount);
+    }
+
+    @Test
+    public void measure_headerBoundedAndContentFillsRemaining() {
+        measure();
+        assertEquals(WIDTH, ceilingLayout.getMeasuredWidth());
+        assertEquals(HEIGHT, ceilingLayout.getMeasuredHeight());
+        assertEquals(500, bannerView.getMeasuredHeight());
+        assertEquals(300, matchParentView.getMeasuredHeight());
+        assertEquals(HEIGHT - 120, contentView.getMeasuredHeight());
+    }
+
+    @Test
+    public void layout_nonTopGravityStillStacksFromTop() {
+        ceilingLayout.setGravity(Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL);
+        ceilingView.setLayoutParams(new LinearLayout.LayoutParams(200, ViewGroup.LayoutParams.WRAP_CONTENT));
+        measure();
+        ceilingLayout.layout(0, 0, WIDTH, HEIGHT);
+        assertEquals(0, bannerView.getTop());
+        assertEquals(500, matchParentView.getTop());
+        assertEquals(800, ceilingView.getTop());
+        assertEquals((WIDTH - 200) / 2, ceilingView.getLeft());
+        assertEquals(920, contentView.getTop());
+        assertEquals(HEIGHT - 120, contentView.getHeight());
+    }
+
+    private void measure() {
+        ceilingLayout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    }
+
+    private static class CountingView extends View {
+        private final int preferredHeight;
+        int measureCount;
+
+        CountingView(Context context, int preferredHeight) {
+            super(context);
+            this.preferredHeight = preferredHeight;
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            int height = preferredHeight;
+            if (MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.EXACTLY) {
+                height = MeasureSpec.getSize(heightMeasureSpec);
+            }
+            setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), height);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.xubo.ceilinglayout;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 行预先创建测试: 创建的ViewHolder都能放入缓存池, 不浪费
+ */
+@RunWith(AndroidJUnit4.class)
+public class RowPrefetcherTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int ROW_HEIGHT = 180;
+    private static final int HEADER_HEIGHT = 600;
+    private static final int CEILING_HEIGHT = 150;
+    /** 足以让头部吸顶后继续惯性的速度 */
+    private static final int FLING_VELOCITY = 20000;
+
+    private RecyclerView recyclerView;
+    private CountingAdapter adapter;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        adapter = new CountingAdapter(1);
+        recyclerView.setAdapter(adapter);
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+        adapter.createCount = 0;
+    }
+
+    @Test
+    public void prefetch_singleViewType_createsOnlyWhatPoolKeeps() {
+        prefetch(ROW_HEIGHT * 40);
+        assertEquals(RowPrefetcher.POOL_MAX_SCRAP_DEFAULT, adapter.createCount);
+        assertEquals(adapter.createCount, recyclerView.getRecycledViewPool().getRecycledViewCount(0));
+    }
+
+    @Test
+    public void prefetch_lowerPoolMax_stopsWhenPoolFull() {
+        recyclerView.getRecycledViewPool().setMaxRecycledViews(0, 2);
+        prefetch(ROW_HEIGHT * 40);
+        assertEquals(2, recyclerView.getRecycledViewPool().getRecycledViewCount(0));
+        //第一次放入失败后停止, 最多浪费一个
+        assertTrue(adapter.createCount <= 3);
+    }
+
+    @Test
+    public void prefetch_twoViewTypes_eachCappedByPool() {
+        adapter = new CountingAdapter(2);
+        recyclerView.swapAdapter(adapter, true);
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+        recyclerView.getRecycledViewPool().clear();
+        adapter.createCount = 0;
+        prefetch(ROW_HEIGHT * 40);
+        RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        assertEquals(adapter.createCount, pool.getRecycledViewCount(0) + pool.getRecycledViewCount(1));
+        assertTrue(pool.getRecycledViewCount(0) <= RowPrefetcher.POOL_MAX_SCRAP_DEFAULT);
+        assertTrue(pool.getRecycledViewCount(1) <= RowPrefetcher.POOL_MAX_SCRAP_DEFAULT);
+    }
+
+    @Test
+    public void ceilingLayout_cancelsPrefetchWhenHeaderPins() {
+        CeilingLayout ceilingLayout = createCeilingLayout();
+        ceilingLayout.onNestedPreFling(recyclerView, 0, FLING_VELOCITY);
+        assertTrue(ceilingLayout.isRowPrefetching());
+        ceilingLayout.collapse(false);
+        assertFalse(ceilingLayout.isRowPrefetching());
+        //吸顶后惯性由RecyclerView滑动, 不再在主线程创建行
+        assertEquals(0, adapter.createCount);
+    }
+
+    @Test
+    public void ceilingLayout_keepsPrefetchBeforeHeaderPins() {
+        CeilingLayout ceilingLayout = createCeilingLayout();
+        ceilingLayout.onNestedPreFling(recyclerView, 0, FLING_VELOCITY);
+        ceilingLayout.scrollToOffset(HEADER_HEIGHT / 2, 0);
+        assertTrue(ceilingLayout.isRowPrefetching());
+    }
+
+    /**
+     * 头部下方为联动RecyclerView的CeilingLayout, 已完成测量与布局
+     * @return
+     */
+    private CeilingLayout createCeilingLayout() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        CeilingLayout ceilingLayout = new CeilingLayout(context);
+        ceilingLayout.setCeilingChildIndex(1);
+        ceilingLayout.addView(new View(context), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HEADER_HEIGHT));
+        ceilingLayout.addView(new View(context), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, CEILING_HEIGHT));
+        recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        adapter = new CountingAdapter(1);
+        recyclerView.setAdapter(adapter);
+        ceilingLayout.addView(recyclerView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        ceilingLayout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        ceilingLayout.layout(0, 0, WIDTH, HEIGHT);
+        adapter.createCount = 0;
+        return ceilingLayout;
+    }
+
+    private void prefetch(int distance) {
+        RowPrefetcher rowPrefetcher = new RowPrefetcher();
+        rowPrefetcher.start(recyclerView, distance);
+        assertTrue(rowPrefetcher.isActive());
+        while (rowPrefetcher.prefetchNext()) {
+        }
+    }
+
+    private static class CountingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final int viewTypeCount;
+        int createCount;
+
+        CountingAdapter(int viewTypeCount) {
+            this.viewTypeCount = viewTypeCount;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % viewTypeCount;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            createCount++;
+            View itemView = new View(parent.getContext());
+            itemView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            return new RecyclerView.ViewHolder(itemView) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 200;
+        }
+    }
+}
@@ -1,57 +1,163 @@
 package com.github.xubo.ceilinglayout;
 
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.view.GravityCompat;
 import android.support.v4.view.NestedScrollingChild;
+import android.support.v4.view.NestedScrollingChild2;
 import android.support.v4.view.NestedScrollingChildHelper;
 import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParent2;
 import android.support.v4.view.NestedScrollingParentHelper;
 import android.support.v4.view.ViewCompat;
+import android.support.v4.view.ViewPager;
+import android.support.v4.widget.NestedScrollView;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
+import android.view.Gravity;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewParent;
+import android.view.animation.AnimationUtils;
 import android.widget.LinearLayout;
-import android.widget.OverScroller;
 
-import com.scwang.smartrefresh.layout.SmartRefreshLayout;
+import com.github.xubo.ceilinglayout.engine.CeilingScrollEngine;
+import com.github.xubo.ceilinglayout.engine.PinTable;
+import com.github.xubo.ceilinglayout.engine.VelocityEstimator;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 
 /**
  * Author：xubo
  * Time：2019-04-25
  * Description：吸顶联滑Layout
  */
-public class CeilingLayout extends LinearLayout implements NestedScrollingParent, NestedScrollingChild {
+public class CeilingLayout extends LinearLayout implements NestedScrollingParent2, NestedScrollingChild2 {
+    /**
+     * 滚动监听分发策略
+     */
+    public enum DispatchMode {
+        /** 每次滚动立即分发 */
+        IMMEDIATE,
+        /** 每帧合并为一次分发, 滚动距离未变化时不分发 */
+        FRAME
+    }
+
+    /**
+     * 折叠实现策略
+     */
+    public enum CollapseMode {
+        /** 滚动整个CeilingLayout(scrollTo) */
+        SCROLL,
+        /** 平移子View(setTranslationY), 只改变RenderNode属性, 不重绘子View */
+        TRANSLATION
+    }
+
+    /**
+     * 吸顶状态
+     */
+    public enum CeilingState {
+        /** 完全展开 */
+        EXPANDED,
+        /** 滑动中 */
+        COLLAPSING,
+        /** 已吸顶 */
+        PINNED
+    }
+
     private static final int INVALID_POINTER = -1;
 
     private int ceilingChildIndex;
+    /** 多个吸顶子View的位置索引(从上到下, 最后一个即ceilingChildIndex), 为null时只有ceilingChildIndex吸顶 */
+    private int[] ceilingChildIndices;
+    /** 吸顶偏移量表, 测量时计算 */
+    private final PinTable pinTable = new PinTable();
+    /** 与吸顶偏移量表位置对应的吸顶子View */
+    private View[] pinChildren = new View[1];
+    /** 当前最下方已吸顶的位置(-1为没有吸顶) */
+    private int pinnedPosition = -1;
+    private int lastDispatchPinnedPosition = -1;
+    /** 多个吸顶时的子View绘制顺序(吸顶子View最后绘制, 覆盖在其下方滑过的子View之上) */
+    private int[] drawingOrder = new int[0];
+    /** 完全滑出可见区域上方而跳过绘制的头部子View(从上到下, 与子View位置索引对应) */
+    private View[] culledChildren = new View[0];
+    private int culledCount;
+    private CullListener cullListener;
+    /** 待恢复的折叠比例(-1为没有待恢复), 在首次布局时按新的吸顶高度恢复 */
+    private float pendingCollapseFraction = -1;
+    private boolean isPendingPinned;
     private int ceilingHeight;
     private int ceilingOffset;
-    private View nestedTarget;
+    /** android:gravity(LinearLayout构造时设置, 不能有初始值), 只使用横向对齐 */
+    private int gravity;
+    private NestedTargetCache nestedTargetCache;
+    /** 吸顶子View下方的子View为ViewPager时, 切换页面后预先解析各页面的联动目标View */
+    private ViewPager contentPager;
+    /** 最近一次嵌套滑动发起View(弱引用, 接管惯性时使用, 页面销毁后不持有) */
+    private WeakReference<View> scrollTargetRef;
+    private ScrollOffsetProvider scrollOffsetProvider = new DefaultScrollOffsetProvider();
     private CeilingListener ceilingListener;
     private ScrollListener scrollListener;
+    private CeilingStateListener ceilingStateListener;
+    private DispatchMode dispatchMode = DispatchMode.IMMEDIATE;
+    private CollapseMode collapseMode = CollapseMode.SCROLL;
+    /** 平移模式下的折叠偏移量 */
+    private int translationOffset;
+    /** 切换折叠实现策略中(折叠偏移量不变, 不分发滚动) */
+    private boolean isSwitchingCollapseMode;
+    private CeilingState ceilingState = CeilingState.EXPANDED;
+    private boolean isDispatchPending;
+    private int lastDispatchScrollY;
+    /** 性能统计(未开启时为null) */
+    private CeilingMetricsRecorder metricsRecorder;
+    private boolean isMetricsFramePosted;
+    /** 联动子View是否在进行非触摸(惯性)嵌套滑动 */
+    private boolean isNonTouchNestedScrolling;
+    /** 本身惯性或平滑滚动是否开启了向父View的非触摸嵌套滑动(转发联动子View惯性时不是本身开启的) */
+    private boolean isSelfNonTouchNestedScrolling;
+    /** 向上联动惯性中预先创建RecyclerView即将滑入的行 */
+    private final RowPrefetcher rowPrefetcher = new RowPrefetcher();
+    private boolean isPrefetchPosted;
+    /** 手势轨迹录制(仅debug包, 未录制时为null) */
+    private GestureTraceRecorder traceRecorder;
+    /** 拖动或惯性滑动中开启了硬件层的头部子View */
+    private View[] layerChildren = new View[0];
+    private int layerCount;
+    private boolean isHeaderLayerActive;
+    private boolean isLayerSettlePosted;
+    /** 上一帧的折叠偏移量, 用于判断滑动是否停止 */
+    private int lastLayerCollapseOffset;
+    /** 手指是否按下 */
+    private boolean isTouching;
 
     private NestedScrollingParentHelper parentHelper;
     private NestedScrollingChildHelper childHelper;
-    private NestedScroller nestedScroller;
-    private OverScroller scroller;
+    private CeilingScrollEngine scrollEngine;
     private float minimumFlingVelocity;
     private float maximumFlingVelocity;
-    private VelocityTracker velocityTracker;
+    private VelocityEstimator velocityEstimator;
     private int touchSlop;
     private int scrollRange;
+    private int childMeasureCount;
     private boolean isBeingDragged;
     private int activePointerId;
     private int lastTouchY;
-    private int lastScrollerY;
     private int nestedYOffset;
     private final int[] scrollOffset = new int[2];
     private final int[] scrollConsumed = new int[2];
+    private final int[] parentConsumed = new int[2];
 
     public CeilingLayout(Context context) {
         this(context, null);
@@ -65,6 +171,10 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
         super(context, attrs, defStyleAttr);
         TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.CeilingLayout);
         ceilingChildIndex = typedArray.getInt(R.styleable.CeilingLayout_ceiling_childIndex, -1);
+        int ceilingChildIndicesId = typedArray.getResourceId(R.styleable.CeilingLayout_ceiling_childIndices, 0);
+        if (ceilingChildIndicesId != 0) {
+            setCeilingChildIndices(context.getResources().getIntArray(ceilingChildIndicesId));
+        }
         typedArray.recycle();
         init(context);
     }
@@ -73,12 +183,14 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
         setOrientation(VERTICAL);
         parentHelper = new NestedScrollingParentHelper(this);
         childHelper = new NestedScrollingChildHelper(this);
-        nestedScroller = new NestedScroller(context);
+        nestedTargetCache = new NestedTargetCache();
         ViewConfiguration viewConfiguration = ViewConfiguration.get(context);
         minimumFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
         maximumFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
         touchSlop = viewConfiguration.getScaledTouchSlop();
-        scroller = new OverScroller(context);
+        scrollEngine = new CeilingScrollEngine(context.getResources().getDisplayMetrics().density, engineCallback);
+        scrollEngine.setFlingVelocityRange(minimumFlingVelocity, maximumFlingVelocity);
+        velocityEstimator = new VelocityEstimator();
     }
 
     @Override
@@ -90,68 +202,592 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
                 break;
             }
         }
+        if (traceRecorder != null) {
+            ViewCompat.postOnAnimation(this, traceFrameRunnable);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        nestedTargetCache.clear();
+        scrollTargetRef = null;
+        if (isDispatchPending) {
+            removeCallbacks(dispatchScrollRunnable);
+            isDispatchPending = false;
+        }
+        if (isMetricsFramePosted) {
+            removeCallbacks(metricsFrameRunnable);
+            isMetricsFramePosted = false;
+        }
+        cancelRowPrefetch();
+        removeCallbacks(traceFrameRunnable);
+        if (isLayerSettlePosted) {
+            removeCallbacks(layerSettleRunnable);
+            isLayerSettlePosted = false;
+        }
+        releaseHeaderLayers();
+    }
+
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+        nestedTargetCache.clear();
+        releaseCulledChildren();
+        releaseHeaderLayers();
+        if (collapseMode == CollapseMode.TRANSLATION) {
+            child.setTranslationY(-translationOffset);
+        }
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        nestedTargetCache.clear();
+        releaseCulledChildren();
+        releaseHeaderLayers();
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        long startNanos = metricsRecorder != null ? System.nanoTime() : 0;
         //最小控制高
         int minMeasuredHeight = MeasureSpec.getSize(heightMeasureSpec);
-        heightMeasureSpec = MeasureSpec.makeMeasureSpec(Integer.MAX_VALUE >> 1, MeasureSpec.EXACTLY);
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        int measuredWidth = getMeasuredWidth();
         int childCount = getChildCount();
         if (ceilingChildIndex < 0 || ceilingChildIndex >= childCount) {
             throw new IllegalStateException("吸顶子View位置索引错误,CeilingLayout没有索引为" + ceilingChildIndex + "的子View");
         } else if (ceilingChildIndex == 0) {
             throw new IllegalStateException("吸顶子View位置索引不能为0,最顶层子View吸顶无任何意义");
+        } else if (ceilingChildIndices != null && !isAscending(ceilingChildIndices)) {
+            throw new IllegalStateException("多个吸顶子View的位置索引必须从小到大排列且不能为0");
         } else if (ceilingChildIndex != -1) {
             if (ceilingChildIndex + 2 == childCount) {
+                childMeasureCount = 0;
+                resetPinnedChildren();
+                if (culledChildren.length < ceilingChildIndex) {
+                    releaseCulledChildren();
+                    culledChildren = new View[ceilingChildIndex];
+                }
+                int pinCount = ceilingChildIndices != null ? ceilingChildIndices.length : 1;
+                pinTable.setSize(pinCount);
+                if (pinChildren.length != pinCount) {
+                    pinChildren = new View[pinCount];
+                }
+                int pinPosition = 0;
+                //已吸顶时叠在下方吸顶子View上面的吸顶子View总高度
+                int stackedHeight = 0;
+                //吸顶子View及其上方子View以控制高为参考不限高测量, 每个子View只测量一次
+                int headerHeightMeasureSpec = MeasureSpec.makeMeasureSpec(minMeasuredHeight, MeasureSpec.UNSPECIFIED);
+                int maxChildWidth = 0;
                 ceilingHeight = 0;
-                for (int index = 0; index < ceilingChildIndex; index++) {
+                for (int index = 0; index <= ceilingChildIndex; index++) {
                     View childView = getChildAt(index);
-                    if (childView.getVisibility() == View.GONE) {
-                        continue;
+                    int childHeight = 0;
+                    if (childView.getVisibility() != View.GONE) {
+                        LinearLayout.LayoutParams params = (LinearLayout.LayoutParams) childView.getLayoutParams();
+                        measureHeaderChild(childView, params, widthMeasureSpec, headerHeightMeasureSpec);
+                        maxChildWidth = Math.max(maxChildWidth, childView.getMeasuredWidth() + params.leftMargin + params.rightMargin);
+                        childHeight = childView.getMeasuredHeight() + params.topMargin + params.bottomMargin;
+                    }
+                    if (index == getPinChildIndex(pinPosition)) {
+                        //子View顶部滑到上方已吸顶子View的底部时开始吸顶
+                        int pinOffset = ceilingHeight - ceilingOffset - stackedHeight;
+                        if (pinOffset < 0) {
+                            throw new IllegalStateException("CeilingLayout偏移高度不能大于吸顶高度");
+                        }
+                        pinTable.setPinOffset(pinPosition, pinOffset);
+                        pinChildren[pinPosition] = childView;
+                        pinPosition++;
+                        if (index < ceilingChildIndex) {
+                            stackedHeight += childHeight;
+                        }
+                    }
+                    if (index < ceilingChildIndex) {
+                        ceilingHeight += childHeight;
                     }
-                    LayoutParams params = (LayoutParams) childView.getLayoutParams();
-                    ceilingHeight += (childView.getMeasuredHeight() + params.topMargin + params.bottomMargin);
-                }
-                scrollRange = ceilingHeight - ceilingOffset;
-                if (scrollRange < 0) {
-                    throw new IllegalStateException("CeilingLayout偏移高度不能大于吸顶高度");
                 }
+                scrollRange = pinTable.getPinOffset(pinCount - 1);
+                scrollEngine.setScrollRange(scrollRange);
+                updateDrawingOrder(childCount, pinCount);
                 View ceilingChildView = getChildAt(ceilingChildIndex);
-                LayoutParams ceilingChildParams = (LayoutParams) ceilingChildView.getLayoutParams();
+                LinearLayout.LayoutParams ceilingChildParams = (LinearLayout.LayoutParams) ceilingChildView.getLayoutParams();
+                int measuredWidth = resolveSize(Math.max(maxChildWidth + getPaddingLeft() + getPaddingRight(), getSuggestedMinimumWidth()), widthMeasureSpec);
                 int measuredHeight = minMeasuredHeight;
                 if (ceilingHeight + ceilingChildView.getMeasuredHeight() + ceilingChildParams.topMargin + ceilingChildParams.bottomMargin > minMeasuredHeight) {  //最小控制高无法排下
                     measuredHeight = ceilingHeight + ceilingChildView.getMeasuredHeight() + ceilingChildParams.topMargin + ceilingChildParams.bottomMargin;
                 }
                 setMeasuredDimension(measuredWidth, measuredHeight);
 
-                //最后子View重新分配高度
-                int lastChildViewHeight = getMeasuredHeight() - ceilingChildView.getMeasuredHeight() - ceilingChildParams.topMargin - ceilingChildParams.bottomMargin - ceilingOffset;
+                //最后子View分配剩余高度, 只测量一次
+                int lastChildViewHeight = getMeasuredHeight() - ceilingChildView.getMeasuredHeight() - ceilingChildParams.topMargin - ceilingChildParams.bottomMargin - ceilingOffset - stackedHeight;
                 View lastChildView = getChildAt(ceilingChildIndex + 1);
+                setContentPager(lastChildView instanceof ViewPager ? (ViewPager) lastChildView : null);
                 int lastChildWidthMeasureSpec = MeasureSpec.makeMeasureSpec(measuredWidth, MeasureSpec.EXACTLY);
                 int lastChildHeightMeasureSpec = MeasureSpec.makeMeasureSpec(lastChildViewHeight, MeasureSpec.EXACTLY);
                 lastChildView.measure(lastChildWidthMeasureSpec, lastChildHeightMeasureSpec);
+                childMeasureCount++;
+                updatePinnedChildren(getCollapseOffset());
+                if (metricsRecorder != null) {
+                    metricsRecorder.addMeasureNanos(System.nanoTime() - startNanos);
+                }
             } else {
                 throw new IllegalStateException("在CeilingLayout里,吸顶子View下面只能配置一个子View");
             }
         }
     }
 
+    /**
+     * 测量吸顶子View及其上方的子View
+     * @param childView
+     * @param params
+     * @param widthMeasureSpec
+     * @param heightMeasureSpec 不限高的测量规格
+     */
+    private void measureHeaderChild(View childView, LinearLayout.LayoutParams params, int widthMeasureSpec, int heightMeasureSpec) {
+        int childWidthMeasureSpec = getChildMeasureSpec(widthMeasureSpec,
+                getPaddingLeft() + getPaddingRight() + params.leftMargin + params.rightMargin, params.width);
+        //不限高时权重无意义, 按自适应高度测量
+        int childHeight = params.height == 0 && params.weight > 0 ? LayoutParams.WRAP_CONTENT : params.height;
+        int childHeightMeasureSpec = getChildMeasureSpec(heightMeasureSpec, params.topMargin + params.bottomMargin, childHeight);
+        childView.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+        childMeasureCount++;
+    }
+
+    /**
+     * 位置索引是否从小到大排列且大于0
+     * @param indices
+     * @return
+     */
+    private static boolean isAscending(int[] indices) {
+        int lastIndex = 0;
+        for (int index : indices) {
+            if (index <= lastIndex) {
+                return false;
+            }
+            lastIndex = index;
+        }
+        return true;
+    }
+
+    /**
+     * 获取吸顶偏移量表指定位置的子View位置索引
+     * @param pinPosition
+     * @return 超出范围返回-1
+     */
+    private int getPinChildIndex(int pinPosition) {
+        if (ceilingChildIndices == null) {
+            return pinPosition == 0 ? ceilingChildIndex : -1;
+        }
+        return pinPosition < ceilingChildIndices.length ? ceilingChildIndices[pinPosition] : -1;
+    }
+
+    /**
+     * 计算多个吸顶时的子View绘制顺序
+     * @param childCount
+     * @param pinCount
+     */
+    private void updateDrawingOrder(int childCount, int pinCount) {
+        setChildrenDrawingOrderEnabled(pinCount > 1);
+        if (pinCount <= 1) {
+            return;
+        }
+        if (drawingOrder.length != childCount) {
+            drawingOrder = new int[childCount];
+        }
+        int order = 0;
+        int pinPosition = 0;
+        for (int index = 0; index < childCount; index++) {
+            if (index == getPinChildIndex(pinPosition)) {
+                pinPosition++;
+            } else {
+                drawingOrder[order++] = index;
+            }
+        }
+        for (pinPosition = 0; pinPosition < pinCount; pinPosition++) {
+            drawingOrder[order++] = getPinChildIndex(pinPosition);
+        }
+    }
+
+    @Override
+    public void setGravity(int gravity) {
+        super.setGravity(gravity);
+        this.gravity = gravity;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        layoutChildren(r - l);
+        if (pendingCollapseFraction >= 0) {
+            restoreCollapseOffset();
+        }
+        updateCulledChildren(getCollapseOffset());
+    }
+
+    /**
+     * 从上到下排列子View
+     * 没有调用LinearLayout.onMeasure, 不能使用LinearLayout.onLayout(纵向gravity依赖其测量的总高度);
+     * 内容总高度超过自身高度(可折叠), 纵向gravity无意义, 始终从顶部排列, 只处理横向对齐
+     * @param width
+     */
+    private void layoutChildren(int width) {
+        int childTop = getPaddingTop();
+        int childSpace = width - getPaddingLeft() - getPaddingRight();
+        int layoutDirection = ViewCompat.getLayoutDirection(this);
+        for (int index = 0; index < getChildCount(); index++) {
+            View childView = getChildAt(index);
+            if (childView.getVisibility() == View.GONE) {
+                continue;
+            }
+            LinearLayout.LayoutParams params = (LinearLayout.LayoutParams) childView.getLayoutParams();
+            int childWidth = childView.getMeasuredWidth();
+            int childHeight = childView.getMeasuredHeight();
+            int childGravity = params.gravity >= 0 ? params.gravity : gravity;
+            if ((childGravity & GravityCompat.RELATIVE_HORIZONTAL_GRAVITY_MASK) == 0) {
+                childGravity |= GravityCompat.START;
+            }
+            int childLeft;
+            switch (GravityCompat.getAbsoluteGravity(childGravity, layoutDirection) & Gravity.HORIZONTAL_GRAVITY_MASK) {
+                case Gravity.CENTER_HORIZONTAL:
+                    childLeft = getPaddingLeft() + (childSpace - childWidth) / 2 + params.leftMargin - params.rightMargin;
+                    break;
+                case Gravity.RIGHT:
+                    childLeft = width - getPaddingRight() - childWidth - params.rightMargin;
+                    break;
+                default:
+                    childLeft = getPaddingLeft() + params.leftMargin;
+                    break;
+            }
+            childTop += params.topMargin;
+            childView.layout(childLeft, childTop, childLeft + childWidth, childTop + childHeight);
+            childTop += childHeight + params.bottomMargin;
+        }
+    }
+
+    /**
+     * 按保存的折叠比例恢复折叠偏移量, 限制在当前可滑动范围内
+     */
+    private void restoreCollapseOffset() {
+        int collapseOffset = isPendingPinned ? scrollRange : Math.round(pendingCollapseFraction * scrollRange);
+        collapseOffset = Math.max(0, Math.min(collapseOffset, scrollRange));
+        pendingCollapseFraction = -1;
+        collapseTo(collapseOffset);
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        if (pendingCollapseFraction >= 0) {  //还未布局, 保留待恢复的状态
+            savedState.collapseFraction = pendingCollapseFraction;
+            savedState.isPinned = isPendingPinned;
+        } else if (scrollRange > 0) {
+            int collapseOffset = getCollapseOffset();
+            savedState.collapseFraction = Math.min((float) collapseOffset / scrollRange, 1);
+            savedState.isPinned = collapseOffset >= scrollRange;
+        }
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        pendingCollapseFraction = savedState.collapseFraction;
+        isPendingPinned = savedState.isPinned;
+        if (ViewCompat.isLaidOut(this) && !isLayoutRequested()) {  //已布局完成且不会再布局, 直接恢复
+            restoreCollapseOffset();
+        }
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        //完全位于可见区域上方的子View不绘制(已吸顶子View有向下的平移, 不会被跳过)
+        if (culledCount > 0 && child.getBottom() + child.getTranslationY() <= getScrollY()) {
+            return false;
+        }
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    /**
+     * 按折叠偏移量更新完全滑出可见区域的头部子View, 头部子View从上到下排列, 只需比较边界上的子View
+     * @param collapseOffset
+     */
+    private void updateCulledChildren(int collapseOffset) {
+        while (culledCount > 0 && culledChildren[culledCount - 1].getBottom() > collapseOffset) {
+            culledCount--;
+            View childView = culledChildren[culledCount];
+            culledChildren[culledCount] = null;
+            dispatchCullChanged(culledCount, childView, false);
+        }
+        int headerCount = Math.min(Math.min(ceilingChildIndex, getChildCount()), culledChildren.length);
+        while (culledCount < headerCount) {
+            View childView = getChildAt(culledCount);
+            if (childView.getBottom() > collapseOffset) {
+                break;
+            }
+            culledChildren[culledCount] = childView;
+            dispatchCullChanged(culledCount, childView, true);
+            culledCount++;
+        }
+    }
+
+    /**
+     * 恢复所有跳过绘制的子View(子View增减后位置索引失效时调用)
+     */
+    private void releaseCulledChildren() {
+        while (culledCount > 0) {
+            culledCount--;
+            View childView = culledChildren[culledCount];
+            culledChildren[culledCount] = null;
+            dispatchCullChanged(culledCount, childView, false);
+        }
+    }
+
+    /**
+     * 分发子View跳过绘制状态变化, 吸顶子View始终可见, 不分发
+     * @param index
+     * @param childView
+     * @param isCulled
+     */
+    private void dispatchCullChanged(int index, View childView, boolean isCulled) {
+        if (cullListener == null || childView.getVisibility() == View.GONE || isPinChild(index)) {
+            return;
+        }
+        cullListener.onCullChanged(childView, isCulled);
+    }
+
+    private boolean isPinChild(int index) {
+        if (ceilingChildIndices == null) {
+            return index == ceilingChildIndex;
+        }
+        return Arrays.binarySearch(ceilingChildIndices, index) >= 0;
+    }
+
+    @Override
+    protected int getChildDrawingOrder(int childCount, int i) {
+        return drawingOrder.length == childCount ? drawingOrder[i] : i;
+    }
+
+    /**
+     * 按折叠偏移量更新吸顶子View的位置, 二分查找已吸顶的位置, 只更新已吸顶及刚取消吸顶的子View
+     * @param collapseOffset
+     */
+    private void updatePinnedChildren(int collapseOffset) {
+        int pinnedPosition = pinTable.findPinnedPosition(collapseOffset);
+        int baseTranslation = collapseMode == CollapseMode.TRANSLATION ? -collapseOffset : 0;
+        for (int position = pinnedPosition + 1; position <= this.pinnedPosition; position++) {
+            pinChildren[position].setTranslationY(baseTranslation);
+        }
+        //超过吸顶偏移量的距离向下平移抵消, 停在上方已吸顶子View的底部
+        for (int position = 0; position <= pinnedPosition; position++) {
+            pinChildren[position].setTranslationY(baseTranslation + collapseOffset - pinTable.getPinOffset(position));
+        }
+        this.pinnedPosition = pinnedPosition;
+    }
+
+    /**
+     * 已吸顶的子View恢复原位置(重新计算吸顶偏移量前调用)
+     */
+    private void resetPinnedChildren() {
+        int baseTranslation = collapseMode == CollapseMode.TRANSLATION ? -translationOffset : 0;
+        for (int position = 0; position <= pinnedPosition; position++) {
+            pinChildren[position].setTranslationY(baseTranslation);
+        }
+        pinnedPosition = -1;
+    }
+
+    /**
+     * 最近一次测量中子View的测量次数
+     * @return
+     */
+    @VisibleForTesting
+    int getChildMeasureCount() {
+        return childMeasureCount;
+    }
+
     @Override
     protected void onScrollChanged(int l, int t, int oldl, int oldt) {
         super.onScrollChanged(l, t, oldl, oldt);
+        if (!isSwitchingCollapseMode) {
+            onCollapseOffsetChanged(t, oldt);
+        }
+    }
+
+    /**
+     * 折叠偏移量变化
+     * @param collapseOffset
+     * @param oldCollapseOffset
+     */
+    private void onCollapseOffsetChanged(int collapseOffset, int oldCollapseOffset) {
+        if (metricsRecorder != null) {
+            metricsRecorder.onSelfScrolled(collapseOffset - oldCollapseOffset);
+        }
+        updatePinnedChildren(collapseOffset);
+        updateCulledChildren(collapseOffset);
+        if (collapseOffset >= scrollRange) {  //已吸顶, 惯性交给联动子View, 不再在主线程创建行
+            cancelRowPrefetch();
+        }
+        if (isTouching || scrollEngine.isFlinging() || scrollEngine.isNestedFlinging() || isNonTouchNestedScrolling) {
+            startHeaderLayers();
+        }
+        if (dispatchMode == DispatchMode.FRAME) {
+            if (!isDispatchPending) {
+                isDispatchPending = true;
+                ViewCompat.postOnAnimation(this, dispatchScrollRunnable);
+            }
+        } else {
+            dispatchScroll(collapseOffset);
+        }
+    }
+
+    /**
+     * 头部子View开启硬件层, 滑动中只合成不重新光栅化; 已设置图层类型或LayoutParams关闭的子View不处理
+     */
+    private void startHeaderLayers() {
+        if (!isHeaderLayerActive && isHardwareAccelerated()) {
+            isHeaderLayerActive = true;
+            int headerCount = Math.min(ceilingChildIndex, getChildCount());
+            if (layerChildren.length < headerCount) {
+                layerChildren = new View[headerCount];
+            }
+            for (int index = 0; index < headerCount; index++) {
+                View childView = getChildAt(index);
+                ViewGroup.LayoutParams params = childView.getLayoutParams();
+                if (childView.getVisibility() == View.GONE || childView.getLayerType() != View.LAYER_TYPE_NONE
+                        || (params instanceof LayoutParams && !((LayoutParams) params).hardwareLayerEnabled)) {
+                    continue;
+                }
+                childView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+                layerChildren[layerCount++] = childView;
+            }
+        }
+        lastLayerCollapseOffset = getCollapseOffset();
+        if (isHeaderLayerActive && !isLayerSettlePosted) {
+            isLayerSettlePosted = true;
+            ViewCompat.postOnAnimation(this, layerSettleRunnable);
+        }
+    }
+
+    /**
+     * 关闭头部子View的硬件层
+     */
+    private void releaseHeaderLayers() {
+        while (layerCount > 0) {
+            layerCount--;
+            layerChildren[layerCount].setLayerType(View.LAYER_TYPE_NONE, null);
+            layerChildren[layerCount] = null;
+        }
+        isHeaderLayerActive = false;
+    }
+
+    /**
+     * 每帧检查滑动是否停止(手指抬起、自身和嵌套子View都没有惯性且折叠偏移量不再变化), 停止后关闭硬件层
+     */
+    private Runnable layerSettleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isLayerSettlePosted = false;
+            if (!isHeaderLayerActive) {
+                return;
+            }
+            int collapseOffset = getCollapseOffset();
+            if (isTouching || scrollEngine.isFlinging() || scrollEngine.isNestedFlinging() || isNonTouchNestedScrolling
+                    || collapseOffset != lastLayerCollapseOffset) {
+                lastLayerCollapseOffset = collapseOffset;
+                isLayerSettlePosted = true;
+                ViewCompat.postOnAnimation(CeilingLayout.this, this);
+            } else {
+                releaseHeaderLayers();
+            }
+        }
+    };
+
+    /**
+     * 折叠到指定偏移量
+     * @param collapseOffset
+     */
+    private void collapseTo(int collapseOffset) {
+        if (collapseMode == CollapseMode.TRANSLATION) {
+            if (translationOffset != collapseOffset) {
+                int oldCollapseOffset = translationOffset;
+                setChildrenTranslation(collapseOffset);
+                onCollapseOffsetChanged(collapseOffset, oldCollapseOffset);
+            }
+        } else {
+            scrollTo(0, collapseOffset);
+        }
+    }
+
+    /**
+     * 获取折叠偏移量(滚动模式下等同getScrollY)
+     * @return
+     */
+    public int getCollapseOffset() {
+        return collapseMode == CollapseMode.TRANSLATION ? translationOffset : getScrollY();
+    }
+
+    @Override
+    protected int computeVerticalScrollOffset() {
+        return getCollapseOffset();
+    }
+
+    /**
+     * 每帧分发一次滚动
+     */
+    private Runnable dispatchScrollRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isDispatchPending = false;
+            int scrollY = getCollapseOffset();
+            if (scrollY != lastDispatchScrollY) {
+                dispatchScroll(scrollY);
+            }
+        }
+    };
+
+    /**
+     * 分发滚动监听
+     * @param scrollY
+     */
+    private void dispatchScroll(int scrollY) {
+        long startNanos = metricsRecorder != null ? System.nanoTime() : 0;
+        lastDispatchScrollY = scrollY;
         if (ceilingListener != null && ceilingChildIndex != -1) {
-            if (t == scrollRange) {
+            if (scrollY == scrollRange) {
                 ceilingListener.scroll(true, 1);
             } else {
-                float scale = (float) t / scrollRange;
+                float scale = (float) scrollY / scrollRange;
                 ceilingListener.scroll(false, scale);
             }
+            if (pinnedPosition != lastDispatchPinnedPosition) {
+                lastDispatchPinnedPosition = pinnedPosition;
+                if (ceilingListener instanceof PinnedCeilingListener) {
+                    ((PinnedCeilingListener) ceilingListener).onPinnedChanged(getPinnedChildIndex());
+                }
+            }
         }
         if (scrollListener != null) {
-            scrollListener.onScroll(t);
+            scrollListener.onScroll(scrollY);
+        }
+        CeilingState state;
+        if (scrollY <= 0) {
+            state = CeilingState.EXPANDED;
+        } else if (scrollY >= scrollRange) {
+            state = CeilingState.PINNED;
+        } else {
+            state = CeilingState.COLLAPSING;
+        }
+        if (state != ceilingState) {
+            ceilingState = state;
+            if (ceilingStateListener != null) {
+                ceilingStateListener.onStateChanged(state);
+            }
+        }
+        if (metricsRecorder != null) {
+            metricsRecorder.addListenerNanos(System.nanoTime() - startNanos);
         }
     }
 
@@ -162,50 +798,70 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
 
     @Override
     public void computeScroll() {
+        long startNanos = metricsRecorder != null ? System.nanoTime() : 0;
         super.computeScroll();
-        if (nestedScroller.computeScrollOffset()) {
-            //当前scroller滑动位置
-            int currY = nestedScroller.getCurrY();
-            //本身可滑动的最终位置
-            int scrollFianl = nestedScroller.getScrollFianl();
-            //开始滑动本身的位置
-            int scrollSelf = nestedScroller.getScrollSelf();
-            //是否向上滑动
-            boolean isUpScroll = nestedScroller.isUpScroll();
-            if (isUpScroll && currY >= scrollSelf) {  //向上滑动, 滑动位置从小到大
-                if (currY >= scrollFianl) {  //大于本身滑动最终距离滑动到最终位置
-                    scrollTo(0, scrollFianl);
-                } else {
-                    scrollTo(0, currY);
-                }
-            } else if (!isUpScroll && currY <= scrollSelf) { //向下滑动, 滑动位置从大到小
-                if (currY <= scrollFianl) {  //小于本身滑动最终距离滑动到最终位置
-                    scrollTo(0, scrollFianl);
-                } else {
-                    scrollTo(0, currY);
+        if (scrollEngine.computeScroll(AnimationUtils.currentAnimationTimeMillis())) {
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+        if (isSelfNonTouchNestedScrolling && !scrollEngine.isFlinging()) {
+            //只结束本身开启的非触摸嵌套滑动, 联动子View的惯性由子View结束
+            isSelfNonTouchNestedScrolling = false;
+            stopNestedScroll(ViewCompat.TYPE_NON_TOUCH);
+        }
+        if (metricsRecorder != null) {
+            metricsRecorder.addComputeScrollNanos(System.nanoTime() - startNanos);
+        }
+    }
+
+    private CeilingScrollEngine.Callback engineCallback = new CeilingScrollEngine.Callback() {
+        @Override
+        public int getScrollOffset() {
+            return getCollapseOffset();
+        }
+
+        @Override
+        public void scrollOffsetTo(int scrollOffset) {
+            collapseTo(scrollOffset);
+        }
+
+        @Override
+        public int getChildScrollOffset() {
+            return getVerticalScrollOffset(getScrollTarget());
+        }
+
+        @Override
+        public void onFlingScrolled(int dyConsumed, int dyUnconsumed) {
+            dispatchNestedScroll(0, dyConsumed, 0, dyUnconsumed, null, ViewCompat.TYPE_NON_TOUCH);
+        }
+
+        @Override
+        public boolean canChildScrollVertically(int direction) {
+            View nestedTarget = nestedTargetCache.get(getScrollTarget());
+            return nestedTarget != null && nestedTarget.canScrollVertically(direction);
+        }
+
+        @Override
+        public void scrollChildBy(int dy) {
+            View nestedTarget = nestedTargetCache.get(getScrollTarget());
+            if (nestedTarget != null) {
+                nestedTarget.scrollBy(0, dy);
+                if (metricsRecorder != null) {
+                    metricsRecorder.onChildScrolled(dy);
                 }
             }
-            ViewCompat.postInvalidateOnAnimation(this);
         }
-        if (scroller.computeScrollOffset()) {
-            final int y = scroller.getCurrY();
-            int dy = y - lastScrollerY;
-            if (dy != 0) {
-                final int oldScrollY = getScrollY();
-                overScroll(dy, oldScrollY, scrollRange);
-                final int scrolledDeltaY = getScrollY() - oldScrollY;
-                final int unconsumedY = dy - scrolledDeltaY;
-                dispatchNestedScroll(0, scrolledDeltaY, 0, unconsumedY, null);
-            }
-            lastScrollerY = y;
-            ViewCompat.postInvalidateOnAnimation(this);
-        } else {
-            if (hasNestedScrollingParent()) {
-                stopNestedScroll();
+
+        @Override
+        public void onFlingHandOff(int velocityY) {
+            cancelRowPrefetch();
+            View nestedTarget = nestedTargetCache.get(getScrollTarget());
+            if (nestedTarget instanceof RecyclerView) {
+                ((RecyclerView) nestedTarget).fling(0, velocityY);
+            } else if (nestedTarget instanceof NestedScrollView) {
+                ((NestedScrollView) nestedTarget).fling(velocityY);
             }
-            lastScrollerY = 0;
         }
-    }
+    };
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
@@ -217,10 +873,9 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
             case MotionEvent.ACTION_DOWN: {
                 lastTouchY = (int) ev.getY();
                 activePointerId = ev.getPointerId(0);
-                initOrResetVelocityTracker();
-                velocityTracker.addMovement(ev);
-                scroller.computeScrollOffset();
-                isBeingDragged = !scroller.isFinished();
+                velocityEstimator.clear();
+                velocityEstimator.addSample(ev.getEventTime(), ev.getY());
+                isBeingDragged = scrollEngine.isFlinging();
                 startNestedScroll(ViewCompat.SCROLL_AXIS_VERTICAL);
             }
             break;
@@ -238,8 +893,7 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
                         && (getNestedScrollAxes() & ViewCompat.SCROLL_AXIS_VERTICAL) == 0) {
                     isBeingDragged = true;
                     lastTouchY = y;
-                    initVelocityTrackerIfNotExists();
-                    velocityTracker.addMovement(ev);
+                    velocityEstimator.addSample(ev.getEventTime(), ev.getY(pointerIndex));
                     nestedYOffset = 0;
                     //阻止父View窃取事件
                     ViewParent parent = getParent();
@@ -253,7 +907,7 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
             case MotionEvent.ACTION_UP:
                 isBeingDragged = false;
                 activePointerId = INVALID_POINTER;
-                recycleVelocityTracker();
+                velocityEstimator.clear();
 //                if (scroller.springBack(getScrollX(), getScrollY(), 0, 0, 0, scrollRange)) {
 //                    ViewCompat.postInvalidateOnAnimation(this);
 //                }
@@ -266,9 +920,7 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
                     final int newPointerIndex = pointerIndex == 0 ? 1 : 0;
                     lastTouchY = (int) ev.getY(newPointerIndex);
                     activePointerId = ev.getPointerId(newPointerIndex);
-                    if (velocityTracker != null) {
-                        velocityTracker.clear();
-                    }
+                    velocityEstimator.clear();
                 }
                 break;
         }
@@ -277,28 +929,26 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        initVelocityTrackerIfNotExists();
-        MotionEvent motionEvent = MotionEvent.obtain(event);
         int action = event.getActionMasked();
         if (action == MotionEvent.ACTION_DOWN) {
             nestedYOffset = 0;
         }
-        motionEvent.offsetLocation(0, nestedYOffset);
+        //速度采样点(原始坐标加上嵌套滑动偏移), 结束手势时不再采样
+        boolean addSample = true;
 
         switch (action) {
             case MotionEvent.ACTION_DOWN: {
-                if ((isBeingDragged = !scroller.isFinished())) {
+                if ((isBeingDragged = scrollEngine.isFlinging())) {
                     final ViewParent parent = getParent();
                     if (parent != null) {
                         parent.requestDisallowInterceptTouchEvent(true);
                     }
                 }
-                if (!scroller.isFinished()) {
-                    scroller.abortAnimation();
-                }
+                scrollEngine.abortAnimation();
 
                 lastTouchY = (int) event.getY();
                 activePointerId = event.getPointerId(0);
+                velocityEstimator.clear();
                 startNestedScroll(ViewCompat.SCROLL_AXIS_VERTICAL);
             }
             break;
@@ -311,7 +961,6 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
                 int diffY = lastTouchY - y;
                 if (dispatchNestedPreScroll(0, diffY, scrollConsumed, scrollOffset)) {
                     diffY -= scrollConsumed[1];
-                    motionEvent.offsetLocation(0, scrollOffset[1]);
                     nestedYOffset += scrollOffset[1];
                 }
                 if (!isBeingDragged && Math.abs(diffY) > touchSlop) {
@@ -328,23 +977,21 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
                 }
                 if (isBeingDragged) {
                     lastTouchY = y - scrollOffset[1];
-                    final int oldY = getScrollY();
-                    if (overScroll(diffY, getScrollY(), scrollRange) && !hasNestedScrollingParent()) {
-                        velocityTracker.clear();
+                    final int oldY = getCollapseOffset();
+                    if (scrollEngine.overScroll(diffY) && !hasNestedScrollingParent()) {
+                        velocityEstimator.clear();
                     }
-                    final int scrolledDeltaY = getScrollY() - oldY;
+                    final int scrolledDeltaY = getCollapseOffset() - oldY;
                     final int unconsumedY = diffY - scrolledDeltaY;
                     if (dispatchNestedScroll(0, scrolledDeltaY, 0, unconsumedY, scrollOffset)) {
                         lastTouchY -= scrollOffset[1];
-                        motionEvent.offsetLocation(0, scrollOffset[1]);
                         nestedYOffset += scrollOffset[1];
                     }
                 }
             }
             break;
             case MotionEvent.ACTION_UP: {
-                velocityTracker.computeCurrentVelocity(1000, maximumFlingVelocity);
-                int velocityY = (int) velocityTracker.getYVelocity(activePointerId);
+                int velocityY = (int) velocityEstimator.computeVelocity(maximumFlingVelocity);
                 if ((Math.abs(velocityY) > minimumFlingVelocity)) {
                     flingWithNestedDispatch(-velocityY);
                 }
@@ -353,7 +1000,8 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
 //                }
                 activePointerId = INVALID_POINTER;
                 isBeingDragged = false;
-                recycleVelocityTracker();
+                velocityEstimator.clear();
+                addSample = false;
                 stopNestedScroll();
             }
             break;
@@ -363,7 +1011,8 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
 //                }
                 activePointerId = INVALID_POINTER;
                 isBeingDragged = false;
-                recycleVelocityTracker();
+                velocityEstimator.clear();
+                addSample = false;
                 stopNestedScroll();
             }
             break;
@@ -371,6 +1020,8 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
                 final int index = event.getActionIndex();
                 lastTouchY = (int) event.getY(index);
                 activePointerId = event.getPointerId(index);
+                //只采样活动手指, 切换手指后重新采样
+                velocityEstimator.clear();
             }
             break;
             case MotionEvent.ACTION_POINTER_UP: {
@@ -380,23 +1031,23 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
                     int newPointerIndex = pointerIndex == 0 ? 1 : 0;
                     lastTouchY = (int) event.getY(newPointerIndex);
                     activePointerId = event.getPointerId(newPointerIndex);
-                    if (velocityTracker != null) {
-                        velocityTracker.clear();
-                    }
+                    velocityEstimator.clear();
                 }
                 lastTouchY = (int) event.getY(event.findPointerIndex(activePointerId));
             }
             break;
         }
-        if (velocityTracker != null) {
-            velocityTracker.addMovement(motionEvent);
+        if (addSample) {
+            int pointerIndex = event.findPointerIndex(activePointerId);
+            if (pointerIndex != -1) {
+                velocityEstimator.addSample(event.getEventTime(), event.getY(pointerIndex) + nestedYOffset);
+            }
         }
-        motionEvent.recycle();
         return true;
     }
 
     private void flingWithNestedDispatch(int velocityY) {
-        final int scrollY = getScrollY();
+        final int scrollY = getCollapseOffset();
         final boolean canFling = (scrollY > 0 || velocityY > 0)
                 && (scrollY < scrollY || velocityY < 0);
         if (!dispatchNestedPreFling(0, velocityY)) {
@@ -405,63 +1056,91 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
         }
     }
 
-    private void fling(int velocityY) {
-        startNestedScroll(ViewCompat.SCROLL_AXIS_VERTICAL);
-        scroller.fling(0, getScrollY(), // start
-                0, velocityY, // velocities
-                0, 0, // x
-                Integer.MIN_VALUE, Integer.MAX_VALUE, // y
-                0, 0); // overscroll
-        lastScrollerY = getScrollY();
-        ViewCompat.postInvalidateOnAnimation(this);
+    /**
+     * 折叠到吸顶
+     * @param animate 是否平滑滚动
+     */
+    public void collapse(boolean animate) {
+        if (!ViewCompat.isLaidOut(this)) {  //还未布局, 首次布局时直接吸顶
+            pendingCollapseFraction = 1;
+            isPendingPinned = true;
+            return;
+        }
+        scrollToOffset(scrollRange, animate ? -1 : 0);
     }
 
-    private boolean overScroll(int diffY, int scrollY, int scrollRange) {
-        int newScrollY = diffY + scrollY;
-        boolean clampedY = false;
-        if (newScrollY > scrollRange) {
-            newScrollY = scrollRange;
-            clampedY = true;
-        } else if (newScrollY < 0) {
-            newScrollY = 0;
-            clampedY = true;
+    /**
+     * 完全展开
+     * @param animate 是否平滑滚动
+     */
+    public void expand(boolean animate) {
+        if (!ViewCompat.isLaidOut(this)) {
+            pendingCollapseFraction = 0;
+            isPendingPinned = false;
+            return;
         }
-//        if (clampedY && !hasNestedScrollingParent()) {
-//            scroller.springBack(0, newScrollY, 0, 0, 0, scrollY);
-//        }
-        scrollTo(0, newScrollY);
-        return clampedY;
+        scrollToOffset(0, animate ? -1 : 0);
     }
 
-    private void initOrResetVelocityTracker() {
-        if (velocityTracker == null) {
-            velocityTracker = VelocityTracker.obtain();
-        } else {
-            velocityTracker.clear();
+    /**
+     * 滚动到指定折叠偏移量, 按下时取消
+     * @param offset 折叠偏移量, 超出范围时截断
+     * @param durationMs 时长(ms), 0为立即滚动, 小于0时按惯性滑过该距离所需的时长
+     */
+    public void scrollToOffset(int offset, int durationMs) {
+        scrollEngine.abortAnimation();
+        if (durationMs == 0) {
+            collapseTo(Math.max(0, Math.min(offset, scrollRange)));
+            return;
         }
+        startSelfNonTouchNestedScroll();
+        scrollEngine.scrollTo(offset, durationMs, AnimationUtils.currentAnimationTimeMillis());
+        beginMetricsFling();
+        ViewCompat.postInvalidateOnAnimation(this);
     }
 
-    private void initVelocityTrackerIfNotExists() {
-        if (velocityTracker == null) {
-            velocityTracker = VelocityTracker.obtain();
+    /**
+     * 本身惯性或平滑滚动开始时开启非触摸嵌套滑动, 已在转发联动子View的惯性时不重复开启
+     */
+    private void startSelfNonTouchNestedScroll() {
+        if (!isSelfNonTouchNestedScrolling && !hasNestedScrollingParent(ViewCompat.TYPE_NON_TOUCH)) {
+            isSelfNonTouchNestedScrolling = startNestedScroll(ViewCompat.SCROLL_AXIS_VERTICAL, ViewCompat.TYPE_NON_TOUCH);
         }
     }
 
-    private void recycleVelocityTracker() {
-        if (velocityTracker != null) {
-            velocityTracker.recycle();
-            velocityTracker = null;
-        }
+    private void fling(int velocityY) {
+        startSelfNonTouchNestedScroll();
+        scrollEngine.fling(velocityY, AnimationUtils.currentAnimationTimeMillis());
+        beginMetricsFling();
+        ViewCompat.postInvalidateOnAnimation(this);
     }
 
     @Override
     public boolean dispatchTouchEvent(MotionEvent ev) {
-        if (ev.getAction() == MotionEvent.ACTION_DOWN) {
-            nestedScroller.forceFinished(true);
-            scroller.forceFinished(true);
+        if (traceRecorder != null) {
+            traceRecorder.recordMotionEvent(ev);
+        }
+        int action = ev.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            isTouching = true;
+            scrollEngine.abortAnimation();
+            cancelRowPrefetch();
             ViewCompat.postInvalidateOnAnimation(this);
+            if (metricsRecorder != null) {
+                metricsRecorder.endFling();
+                metricsRecorder.beginGesture();
+                postMetricsFrame();
+            }
+        }
+        boolean handled = super.dispatchTouchEvent(ev);
+        //抬起事件分发完(联动子View已开始惯性)后再结束触摸
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            isTouching = false;
+            if (metricsRecorder != null) {
+                metricsRecorder.endGesture();
+            }
         }
-        return super.dispatchTouchEvent(ev);
+        return handled;
     }
 
     @Override
@@ -476,27 +1155,52 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
 
     @Override
     public boolean startNestedScroll(int axes) {
-        return childHelper.startNestedScroll(axes);
+        return startNestedScroll(axes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public boolean startNestedScroll(int axes, int type) {
+        return childHelper.startNestedScroll(axes, type);
     }
 
     @Override
     public void stopNestedScroll() {
-        childHelper.stopNestedScroll();
+        stopNestedScroll(ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void stopNestedScroll(int type) {
+        childHelper.stopNestedScroll(type);
     }
 
     @Override
     public boolean hasNestedScrollingParent() {
-        return childHelper.hasNestedScrollingParent();
+        return hasNestedScrollingParent(ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public boolean hasNestedScrollingParent(int type) {
+        return childHelper.hasNestedScrollingParent(type);
     }
 
     @Override
     public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, @Nullable int[] offsetInWindow) {
-        return childHelper.dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow);
+        return dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, @Nullable int[] offsetInWindow, int type) {
+        return childHelper.dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type);
     }
 
     @Override
     public boolean dispatchNestedPreScroll(int dx, int dy, @Nullable int[] consumed, @Nullable int[] offsetInWindow) {
-        return childHelper.dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow);
+        return dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public boolean dispatchNestedPreScroll(int dx, int dy, @Nullable int[] consumed, @Nullable int[] offsetInWindow, int type) {
+        return childHelper.dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow, type);
     }
 
     @Override
@@ -516,47 +1220,79 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
 
     @Override
     public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
-        return nestedScrollAxes == SCROLL_AXIS_VERTICAL ? true : false;
+        return onStartNestedScroll(child, target, nestedScrollAxes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public boolean onStartNestedScroll(View child, View target, int axes, int type) {
+        return (axes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0;
     }
 
     @Override
     public void onNestedScrollAccepted(View child, View target, int axes) {
-        parentHelper.onNestedScrollAccepted(child, target, axes);
-        childHelper.startNestedScroll(axes);
+        onNestedScrollAccepted(child, target, axes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedScrollAccepted(View child, View target, int axes, int type) {
+        parentHelper.onNestedScrollAccepted(child, target, axes, type);
+        childHelper.startNestedScroll(axes, type);
+        if (type == ViewCompat.TYPE_NON_TOUCH) {
+            isNonTouchNestedScrolling = true;
+            beginMetricsFling();
+        }
     }
 
     @Override
     public void onStopNestedScroll(View child) {
-        parentHelper.onStopNestedScroll(child);
-        childHelper.stopNestedScroll();
+        onStopNestedScroll(child, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onStopNestedScroll(View target, int type) {
+        parentHelper.onStopNestedScroll(target, type);
+        childHelper.stopNestedScroll(type);
+        if (type == ViewCompat.TYPE_NON_TOUCH) {
+            isNonTouchNestedScrolling = false;
+        }
     }
 
     @Override
     public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
-        childHelper.dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, null);
+        onNestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int type) {
+        setScrollTarget(target);
+        if (metricsRecorder != null) {
+            metricsRecorder.onChildScrolled(dyConsumed);
+        }
+        //联动子View到顶后剩余的向下距离由本身展开消费, 再把未消费的距离交给父View
+        int selfConsumed = scrollEngine.nestedScroll(dyUnconsumed);
+        childHelper.dispatchNestedScroll(dxConsumed, dyConsumed + selfConsumed, dxUnconsumed, dyUnconsumed - selfConsumed, null, type);
     }
 
     @Override
     public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
-        if (dy > 0 && getScrollY() < scrollRange) {  //向上滑动
-            if (getScrollY() + dy > scrollRange) {
-                dy = scrollRange - getScrollY();
-            }
-            scrollBy(0, dy);
-            consumed[1] = dy;
-        } else if (dy < 0 && getScrollY() > 0) {  //向下滑动
-            if (target instanceof NestedScrollingChild) {
-                int childScrollY = getVerticalScrollOffset(target);
-                if (childScrollY <= 0) {
-                    if (getScrollY() + dy < 0) {
-                        dy = -getScrollY();
-                    }
-                    scrollBy(0, dy);
-                    consumed[1] = dy;
-                }
-            }
+        onNestedPreScroll(target, dx, dy, consumed, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedPreScroll(View target, int dx, int dy, int[] consumed, int type) {
+        long startNanos = metricsRecorder != null ? System.nanoTime() : 0;
+        setScrollTarget(target);
+        int selfConsumed = scrollEngine.preScroll(dy, target instanceof NestedScrollingChild);
+        //本身消费后剩余的距离交给父View, 消费量累加后如实返回
+        if (childHelper.dispatchNestedPreScroll(dx, dy - selfConsumed, parentConsumed, null, type)) {
+            consumed[0] = parentConsumed[0];
+            consumed[1] = selfConsumed + parentConsumed[1];
+        } else {
+            consumed[1] = selfConsumed;
+        }
+        if (metricsRecorder != null) {
+            metricsRecorder.addPreScrollNanos(System.nanoTime() - startNanos);
         }
-        childHelper.dispatchNestedPreScroll(dx, dy, consumed, null);
     }
 
     @Override
@@ -566,97 +1302,169 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
 
     @Override
     public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
-        if (scrollSelfIsConsumed(target, velocityY)) {
+        setScrollTarget(target);
+        startRowPrefetch(target, velocityY);
+        if (target instanceof NestedScrollingChild2) {  //联动子View逐帧分发非触摸嵌套滑动, 由onNestedPreScroll/onNestedScroll精确消费
+            return childHelper.dispatchNestedPreFling(velocityX, velocityY);
+        }
+        if (scrollEngine.nestedPreFling(velocityY, AnimationUtils.currentAnimationTimeMillis())) {  //由本身接管惯性, 联动子View不再单独惯性滑动
+            beginMetricsFling();
+            ViewCompat.postInvalidateOnAnimation(this);
             return true;
         } else {
             return childHelper.dispatchNestedPreFling(velocityX, velocityY);
         }
     }
 
-    private boolean scrollSelfIsConsumed(View target, float velocityY) {
-        if (Math.abs(velocityY) >= minimumFlingVelocity) {
-            //滑动速度
-            int yVelocity = (int) (Math.abs(velocityY) <= maximumFlingVelocity ? velocityY : (velocityY > 0 ? maximumFlingVelocity : -maximumFlingVelocity));
-            //联动子View的偏移量
-            int childScrollOffset = getVerticalScrollOffset(target);
-            //自身偏移量
-            int scrollOffset = computeVerticalScrollOffset();
-            //自身最大偏移量
-            int maxScrollOffset = scrollRange;
-            //自身可滑动剩余量
-            int haveScrollOffset = maxScrollOffset - scrollOffset;
-            if ((yVelocity > 0 && haveScrollOffset > 0) || (yVelocity < 0 && haveScrollOffset < maxScrollOffset)) {
-                nestedScroller.fling(yVelocity, childScrollOffset, scrollOffset, maxScrollOffset);
-                ViewCompat.postInvalidateOnAnimation(this);
-                if (nestedScroller.isUpScroll() && nestedScroller.getFinalY() <= nestedScroller.getScrollFianl()) {  //向上滑动如果惯性偏移量小于本身可滑动的最大偏移量,则禁止联动子View滑动
-                    return true;
-                }
+    /**
+     * 设置内容ViewPager, 监听页面切换
+     * @param viewPager
+     */
+    private void setContentPager(ViewPager viewPager) {
+        if (contentPager == viewPager) {
+            return;
+        }
+        if (contentPager != null) {
+            contentPager.removeOnPageChangeListener(pageChangeListener);
+        }
+        contentPager = viewPager;
+        if (contentPager != null) {
+            contentPager.addOnPageChangeListener(pageChangeListener);
+        }
+    }
+
+    private ViewPager.OnPageChangeListener pageChangeListener = new ViewPager.SimpleOnPageChangeListener() {
+        @Override
+        public void onPageSelected(int position) {
+            warmPageTargets();
+        }
+
+        @Override
+        public void onPageScrollStateChanged(int state) {
+            //滑动切换时新的预加载页面在滑动结束后才创建
+            if (state == ViewPager.SCROLL_STATE_IDLE) {
+                warmPageTargets();
             }
         }
-        return false;
+    };
+
+    /**
+     * 预先解析ViewPager已创建页面的联动目标View, 已缓存的页面不重复解析
+     */
+    private void warmPageTargets() {
+        if (contentPager == null) {
+            return;
+        }
+        for (int index = 0; index < contentPager.getChildCount(); index++) {
+            nestedTargetCache.warm(contentPager.getChildAt(index));
+        }
     }
 
     /**
-     * 获取联动目标View滚动距离
+     * 按预测的惯性交接距离开始预先创建联动RecyclerView的行
      * @param target
+     * @param velocityY
+     */
+    private void startRowPrefetch(View target, float velocityY) {
+        View nestedTarget = nestedTargetCache.get(target);
+        if (!(nestedTarget instanceof RecyclerView)) {
+            return;
+        }
+        rowPrefetcher.start((RecyclerView) nestedTarget, scrollEngine.predictChildFlingDistance(velocityY));
+        if (rowPrefetcher.isActive() && !isPrefetchPosted) {
+            isPrefetchPosted = true;
+            ViewCompat.postOnAnimation(this, rowPrefetchRunnable);
+        }
+    }
+
+    /**
+     * 是否在预先创建联动RecyclerView的行
      * @return
      */
-    private int getVerticalScrollOffset(View target) {
-        if (nestedTarget == null) {
-            nestedTarget = getNestedTarget(target);
-            if (nestedTarget != null) {
-                nestedTarget.setTag(target);
-            }
-        } else {
-            View tag = (View) nestedTarget.getTag();
-            if (!tag.equals(target)) {
-                nestedTarget = getNestedTarget(target);
-                if (nestedTarget != null) {
-                    nestedTarget.setTag(target);
-                }
+    @VisibleForTesting
+    boolean isRowPrefetching() {
+        return rowPrefetcher.isActive();
+    }
+
+    private void cancelRowPrefetch() {
+        rowPrefetcher.cancel();
+        if (isPrefetchPosted) {
+            removeCallbacks(rowPrefetchRunnable);
+            isPrefetchPosted = false;
+        }
+    }
+
+    /**
+     * 每帧预先创建一行, 把创建耗时分散到本身吸顶前的各帧
+     */
+    private Runnable rowPrefetchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isPrefetchPosted = false;
+            if (rowPrefetcher.prefetchNext()) {
+                isPrefetchPosted = true;
+                ViewCompat.postOnAnimation(CeilingLayout.this, this);
             }
         }
-        if (nestedTarget == null) {
-            return 0;
+    };
+
+    private void beginMetricsFling() {
+        if (metricsRecorder != null) {
+            metricsRecorder.beginFling();
+            postMetricsFrame();
         }
-        int scrollY = nestedTarget.getScrollY();
-        if (nestedTarget instanceof RecyclerView) {
-            RecyclerView recyclerView = (RecyclerView) nestedTarget;
-            scrollY = recyclerView.computeVerticalScrollOffset();
+    }
+
+    private void postMetricsFrame() {
+        if (!isMetricsFramePosted) {
+            isMetricsFramePosted = true;
+            ViewCompat.postOnAnimation(this, metricsFrameRunnable);
         }
-        return scrollY;
     }
 
     /**
-     * 获取联动目标View
-     * @return
+     * 统计进行中时每帧执行一次
      */
-    private View getNestedTarget(View target) {
-        if (target instanceof SmartRefreshLayout) {
-            SmartRefreshLayout smartRefreshLayout = (SmartRefreshLayout) target;
-            for (int i = 0; i < smartRefreshLayout.getChildCount(); i++) {
-                View child = smartRefreshLayout.getChildAt(i);
-                if (child instanceof NestedScrollingChild) {
-                    View nestedTarget = getNestedTarget(child);
-                    if (nestedTarget != null) {
-                        return nestedTarget;
-                    }
-                }
+    private Runnable metricsFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isMetricsFramePosted = false;
+            if (metricsRecorder == null) {
+                return;
             }
-            return target;
-        } else if (target instanceof NestedScrollingChild) {
-            return target;
-        } else if (target instanceof ViewGroup) {
-            ViewGroup viewGroup = (ViewGroup) target;
-            for (int i = 0; i < viewGroup.getChildCount(); i++) {
-                View child = viewGroup.getChildAt(i);
-                View nestedTarget = getNestedTarget(child);
-                if (nestedTarget != null) {
-                    return nestedTarget;
-                }
+            metricsRecorder.onFrame();
+            if (metricsRecorder.isFlingActive() && !scrollEngine.isFlinging()
+                    && !scrollEngine.isNestedFlinging() && !isNonTouchNestedScrolling) {
+                metricsRecorder.endFling();
+            }
+            if (metricsRecorder.isActive()) {
+                postMetricsFrame();
             }
         }
-        return null;
+    };
+
+    private void setScrollTarget(View target) {
+        if (getScrollTarget() != target) {
+            scrollTargetRef = new WeakReference<View>(target);
+        }
+    }
+
+    @Nullable
+    private View getScrollTarget() {
+        return scrollTargetRef != null ? scrollTargetRef.get() : null;
+    }
+
+    /**
+     * 获取联动目标View滚动距离
+     * @param target
+     * @return
+     */
+    private int getVerticalScrollOffset(View target) {
+        View nestedTarget = nestedTargetCache.get(target);
+        if (nestedTarget == null) {
+            return 0;
+        }
+        return scrollOffsetProvider.getScrollOffset(nestedTarget);
     }
 
     /**
@@ -674,11 +1482,34 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
      */
     public void setCeilingChildIndex(int ceilingChildIndex) {
         this.ceilingChildIndex = ceilingChildIndex;
+        this.ceilingChildIndices = null;
         requestLayout();
     }
 
     /**
-     * 设置吸顶滚动监听
+     * 设置多个吸顶子View的位置索引, 从上到下依次吸顶并叠放, 最后一个即吸顶子View
+     * @param ceilingChildIndices
+     */
+    public void setCeilingChildIndices(int... ceilingChildIndices) {
+        if (ceilingChildIndices == null || ceilingChildIndices.length == 0) {
+            this.ceilingChildIndices = null;
+        } else {
+            this.ceilingChildIndices = ceilingChildIndices.clone();
+            this.ceilingChildIndex = ceilingChildIndices[ceilingChildIndices.length - 1];
+        }
+        requestLayout();
+    }
+
+    /**
+     * 获取最下方已吸顶子View的位置索引
+     * @return 没有吸顶返回-1
+     */
+    public int getPinnedChildIndex() {
+        return pinnedPosition == -1 ? -1 : getPinChildIndex(pinnedPosition);
+    }
+
+    /**
+     * 设置吸顶滚动监听, 实现{@link PinnedCeilingListener}时同时回调吸顶子View变化
      * @param ceilingListener
      */
     public void setCeilingListener(CeilingListener ceilingListener) {
@@ -694,52 +1525,241 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
     }
 
     /**
-     * 惯性联动Scroller
+     * 设置联动目标View滚动距离提供者(如需要精确滚动距离时), 为null时使用默认
+     * @param scrollOffsetProvider
+     */
+    public void setScrollOffsetProvider(@Nullable ScrollOffsetProvider scrollOffsetProvider) {
+        this.scrollOffsetProvider = scrollOffsetProvider != null ? scrollOffsetProvider : new DefaultScrollOffsetProvider();
+    }
+
+    /**
+     * 添加联动目标View解析器(如刷新控件包裹联动View时使用)
+     * @param resolver
+     */
+    public void addNestedTargetResolver(NestedTargetResolver resolver) {
+        nestedTargetCache.addResolver(resolver);
+    }
+
+    /**
+     * 移除联动目标View解析器
+     * @param resolver
+     */
+    public void removeNestedTargetResolver(NestedTargetResolver resolver) {
+        nestedTargetCache.removeResolver(resolver);
+    }
+
+    /**
+     * 设置吸顶状态监听(仅在状态变化时回调)
+     * @param ceilingStateListener
+     */
+    public void setCeilingStateListener(CeilingStateListener ceilingStateListener) {
+        this.ceilingStateListener = ceilingStateListener;
+    }
+
+    /**
+     * 设置滚动监听分发策略, 默认{@link DispatchMode#IMMEDIATE}
+     * @param dispatchMode
      */
-    public class NestedScroller extends OverScroller {
-        //可滑动本身位置的位置
-        private int scrollSelf;
-        //本身惯性滑动最终位置
-        private int scrollFianl;
-        //受否向上滑动
-        private boolean isUpScroll;
+    public void setDispatchMode(DispatchMode dispatchMode) {
+        this.dispatchMode = dispatchMode;
+    }
 
-        public NestedScroller(Context context) {
-            super(context);
+    /**
+     * 设置折叠实现策略, 默认{@link CollapseMode#SCROLL}
+     * @param collapseMode
+     */
+    public void setCollapseMode(CollapseMode collapseMode) {
+        if (this.collapseMode == collapseMode) {
+            return;
+        }
+        //折叠偏移量在scrollY与平移之间直接转移, 偏移量不变, 监听、跳过绘制与统计都不需要更新
+        int collapseOffset = getCollapseOffset();
+        resetPinnedChildren();
+        isSwitchingCollapseMode = true;
+        if (collapseMode == CollapseMode.TRANSLATION) {
+            scrollTo(0, 0);
+            this.collapseMode = collapseMode;
+            setChildrenTranslation(collapseOffset);
+        } else {
+            setChildrenTranslation(0);
+            this.collapseMode = collapseMode;
+            scrollTo(0, collapseOffset);
         }
+        isSwitchingCollapseMode = false;
+        updatePinnedChildren(collapseOffset);
+    }
 
-        /**
-         * 惯性滑动
-         * @param velocityY 滑动速度
-         * @param childScrollOffset 联动子View滑动偏移量
-         * @param scrollOffset 本身滑动偏移量
-         * @param maxScrollOffset 本身可滑动最大偏移量
-         */
-        public void fling(int velocityY, int childScrollOffset, int scrollOffset, int maxScrollOffset) {
-            if (velocityY > 0) {  //向上滑动
-                this.scrollSelf = 0;
-                this.scrollFianl = maxScrollOffset;
-                this.isUpScroll = true;
-                fling(0, scrollOffset, 0, velocityY, 0, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
-            } else {  //向上滑动
-                this.scrollSelf = scrollOffset;
-                this.scrollFianl = 0;
-                this.isUpScroll = false;
-                fling(0, childScrollOffset + scrollOffset, 0, velocityY, 0, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    /**
+     * 平移所有子View(不分发滚动)
+     * @param collapseOffset
+     */
+    private void setChildrenTranslation(int collapseOffset) {
+        translationOffset = collapseOffset;
+        for (int index = 0; index < getChildCount(); index++) {
+            getChildAt(index).setTranslationY(-collapseOffset);
+        }
+    }
+
+    /**
+     * 设置头部子View跳过绘制监听, 可在子View滑出可见区域时释放图片等资源, 滑回时重新加载
+     * @param cullListener
+     */
+    public void setCullListener(CullListener cullListener) {
+        this.cullListener = cullListener;
+    }
+
+    /**
+     * 开始录制手势轨迹(触摸事件与帧时间), 仅debug包有效, 用于在JVM上回放复现卡顿
+     * @return 是否开始录制
+     */
+    public boolean startGestureTrace() {
+        if ((getContext().getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0) {
+            return false;
+        }
+        removeCallbacks(traceFrameRunnable);
+        traceRecorder = new GestureTraceRecorder(SystemClock.uptimeMillis());
+        ViewCompat.postOnAnimation(this, traceFrameRunnable);
+        return true;
+    }
+
+    /**
+     * 结束录制手势轨迹并写入文件
+     * @param file 轨迹文件, 为null时只结束录制
+     * @throws IOException
+     */
+    public void stopGestureTrace(@Nullable File file) throws IOException {
+        GestureTraceRecorder recorder = traceRecorder;
+        if (recorder == null) {
+            return;
+        }
+        traceRecorder = null;
+        removeCallbacks(traceFrameRunnable);
+        if (file != null) {
+            recorder.writeTo(file);
+        }
+    }
+
+    /**
+     * 录制中每帧记录帧时间
+     */
+    private Runnable traceFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (traceRecorder != null) {
+                traceRecorder.recordFrame(AnimationUtils.currentAnimationTimeMillis());
+                ViewCompat.postOnAnimation(CeilingLayout.this, this);
             }
         }
+    };
 
-        public int getScrollSelf() {
-            return scrollSelf;
+    /**
+     * 设置性能统计监听, 每次手势与惯性结束时回调; 传null关闭统计
+     * @param metricsListener
+     */
+    public void setMetricsListener(CeilingMetrics.Listener metricsListener) {
+        metricsRecorder = metricsListener != null ? new CeilingMetricsRecorder(metricsListener) : null;
+    }
+
+    /**
+     * 获取当前吸顶状态
+     * @return
+     */
+    public CeilingState getCeilingState() {
+        return ceilingState;
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(super.generateDefaultLayoutParams());
+    }
+
+    @Override
+    public LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new LayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected LayoutParams generateLayoutParams(ViewGroup.LayoutParams p) {
+        if (p instanceof LinearLayout.LayoutParams) {
+            return new LayoutParams((LinearLayout.LayoutParams) p);
+        } else if (p instanceof MarginLayoutParams) {
+            return new LayoutParams((MarginLayoutParams) p);
+        }
+        return new LayoutParams(p);
+    }
+
+    @Override
+    protected boolean checkLayoutParams(ViewGroup.LayoutParams p) {
+        return p instanceof LayoutParams;
+    }
+
+    public static class LayoutParams extends LinearLayout.LayoutParams {
+        /** 拖动或惯性滑动时是否自动开启硬件层(内容实时变化的子View如视频、倒计时应关闭), 只对头部子View有效 */
+        public boolean hardwareLayerEnabled = true;
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+            TypedArray typedArray = c.obtainStyledAttributes(attrs, R.styleable.CeilingLayout_Layout);
+            hardwareLayerEnabled = typedArray.getBoolean(R.styleable.CeilingLayout_Layout_layout_ceiling_hardwareLayer, true);
+            typedArray.recycle();
         }
 
-        public int getScrollFianl() {
-            return scrollFianl;
+        public LayoutParams(int width, int height) {
+            super(width, height);
         }
 
-        public boolean isUpScroll() {
-            return isUpScroll;
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
         }
+
+        public LayoutParams(MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(LinearLayout.LayoutParams source) {
+            super((MarginLayoutParams) source);
+            weight = source.weight;
+            gravity = source.gravity;
+            if (source instanceof LayoutParams) {
+                hardwareLayerEnabled = ((LayoutParams) source).hardwareLayerEnabled;
+            }
+        }
+    }
+
+    static class SavedState extends BaseSavedState {
+        /** 折叠偏移量占可滑动范围的比例 */
+        float collapseFraction;
+        /** 是否已吸顶 */
+        boolean isPinned;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        SavedState(Parcel source) {
+            super(source);
+            collapseFraction = source.readFloat();
+            isPinned = source.readInt() != 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeFloat(collapseFraction);
+            dest.writeInt(isPinned ? 1 : 0);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel source) {
+                return new SavedState(source);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
     }
 
     public interface CeilingListener {
@@ -751,6 +1771,23 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
         void scroll(boolean isCeiling, float scale);
     }
 
+    public interface PinnedCeilingListener extends CeilingListener {
+        /**
+         * 吸顶子View变化(多个吸顶时为最下方已吸顶的子View)
+         * @param childIndex 吸顶子View的位置索引, 没有吸顶为-1
+         */
+        void onPinnedChanged(int childIndex);
+    }
+
+    public interface CullListener {
+        /**
+         * 头部子View完全滑出可见区域上方(跳过绘制)或重新滑入
+         * @param child 头部子View
+         * @param isCulled 是否跳过绘制
+         */
+        void onCullChanged(View child, boolean isCulled);
+    }
+
     public interface ScrollListener {
         /**
          * 滚动
@@ -758,4 +1795,12 @@ public class CeilingLayout extends LinearLayout implements NestedScrollingParent
          */
         void onScroll(int scrollY);
     }
+
+    public interface CeilingStateListener {
+        /**
+         * 吸顶状态变化
+         * @param state 当前状态
+         */
+        void onStateChanged(CeilingState state);
+    }
 }
@@ -0,0 +1,105 @@
+package com.github.xubo.ceilinglayout;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：CeilingLayout单次手势或惯性的性能统计(回调结束后对象会被复用, 需要保存时请复制数值)
+ */
+public class CeilingMetrics {
+    /**
+     * 统计类型
+     */
+    public enum Type {
+        /** 手势(按下到抬起) */
+        GESTURE,
+        /** 惯性(开始到停止) */
+        FLING
+    }
+
+    private final Type type;
+    /** 开始时间(ns) */
+    long startNanos;
+    /** 持续时间(ns) */
+    long durationNanos;
+    /** 帧数 */
+    int frameCount;
+    /** 本身与联动子View同一帧都发生滑动的帧数 */
+    int bothMovedFrameCount;
+    /** 本身消费的距离 */
+    int selfConsumed;
+    /** 联动子View消费的距离 */
+    int childConsumed;
+    /** onNestedPreScroll耗时(ns) */
+    long preScrollNanos;
+    /** computeScroll耗时(ns) */
+    long computeScrollNanos;
+    /** onMeasure耗时(ns) */
+    long measureNanos;
+    /** 滚动监听回调耗时(ns) */
+    long listenerNanos;
+
+    CeilingMetrics(Type type) {
+        this.type = type;
+    }
+
+    void reset(long now) {
+        startNanos = now;
+        durationNanos = 0;
+        frameCount = 0;
+        bothMovedFrameCount = 0;
+        selfConsumed = 0;
+        childConsumed = 0;
+        preScrollNanos = 0;
+        computeScrollNanos = 0;
+        measureNanos = 0;
+        listenerNanos = 0;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getBothMovedFrameCount() {
+        return bothMovedFrameCount;
+    }
+
+    public int getSelfConsumed() {
+        return selfConsumed;
+    }
+
+    public int getChildConsumed() {
+        return childConsumed;
+    }
+
+    public long getPreScrollNanos() {
+        return preScrollNanos;
+    }
+
+    public long getComputeScrollNanos() {
+        return computeScrollNanos;
+    }
+
+    public long getMeasureNanos() {
+        return measureNanos;
+    }
+
+    public long getListenerNanos() {
+        return listenerNanos;
+    }
+
+    public interface Listener {
+        /**
+         * 一次手势或惯性结束
+         * @param metrics 统计结果(仅在回调内有效)
+         */
+        void onMetrics(CeilingMetrics metrics);
+    }
+}
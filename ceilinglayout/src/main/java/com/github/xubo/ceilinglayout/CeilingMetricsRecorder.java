@@ -0,0 +1,147 @@
+package com.github.xubo.ceilinglayout;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：性能统计记录(手势与惯性可同时进行, 数据记录到所有进行中的统计, 无对象分配)
+ */
+class CeilingMetricsRecorder {
+    private final CeilingMetrics.Listener listener;
+    private final CeilingMetrics gestureMetrics = new CeilingMetrics(CeilingMetrics.Type.GESTURE);
+    private final CeilingMetrics flingMetrics = new CeilingMetrics(CeilingMetrics.Type.FLING);
+    private boolean isGestureActive;
+    private boolean isFlingActive;
+    /** 当前帧本身是否滑动 */
+    private boolean isSelfMoved;
+    /** 当前帧联动子View是否滑动 */
+    private boolean isChildMoved;
+
+    CeilingMetricsRecorder(CeilingMetrics.Listener listener) {
+        this.listener = listener;
+    }
+
+    boolean isActive() {
+        return isGestureActive || isFlingActive;
+    }
+
+    boolean isFlingActive() {
+        return isFlingActive;
+    }
+
+    void beginGesture() {
+        if (isGestureActive) {
+            endGesture();
+        }
+        isGestureActive = true;
+        gestureMetrics.reset(System.nanoTime());
+    }
+
+    void endGesture() {
+        if (isGestureActive) {
+            isGestureActive = false;
+            dispatch(gestureMetrics);
+        }
+    }
+
+    void beginFling() {
+        if (!isFlingActive) {
+            isFlingActive = true;
+            flingMetrics.reset(System.nanoTime());
+        }
+    }
+
+    void endFling() {
+        if (isFlingActive) {
+            isFlingActive = false;
+            dispatch(flingMetrics);
+        }
+    }
+
+    /**
+     * 一帧结束
+     */
+    void onFrame() {
+        boolean isBothMoved = isSelfMoved && isChildMoved;
+        if (isGestureActive) {
+            gestureMetrics.frameCount++;
+            if (isBothMoved) {
+                gestureMetrics.bothMovedFrameCount++;
+            }
+        }
+        if (isFlingActive) {
+            flingMetrics.frameCount++;
+            if (isBothMoved) {
+                flingMetrics.bothMovedFrameCount++;
+            }
+        }
+        isSelfMoved = false;
+        isChildMoved = false;
+    }
+
+    void onSelfScrolled(int dy) {
+        if (dy != 0) {
+            isSelfMoved = true;
+            dy = Math.abs(dy);
+            if (isGestureActive) {
+                gestureMetrics.selfConsumed += dy;
+            }
+            if (isFlingActive) {
+                flingMetrics.selfConsumed += dy;
+            }
+        }
+    }
+
+    void onChildScrolled(int dy) {
+        if (dy != 0) {
+            isChildMoved = true;
+            dy = Math.abs(dy);
+            if (isGestureActive) {
+                gestureMetrics.childConsumed += dy;
+            }
+            if (isFlingActive) {
+                flingMetrics.childConsumed += dy;
+            }
+        }
+    }
+
+    void addPreScrollNanos(long nanos) {
+        if (isGestureActive) {
+            gestureMetrics.preScrollNanos += nanos;
+        }
+        if (isFlingActive) {
+            flingMetrics.preScrollNanos += nanos;
+        }
+    }
+
+    void addComputeScrollNanos(long nanos) {
+        if (isGestureActive) {
+            gestureMetrics.computeScrollNanos += nanos;
+        }
+        if (isFlingActive) {
+            flingMetrics.computeScrollNanos += nanos;
+        }
+    }
+
+    void addMeasureNanos(long nanos) {
+        if (isGestureActive) {
+            gestureMetrics.measureNanos += nanos;
+        }
+        if (isFlingActive) {
+            flingMetrics.measureNanos += nanos;
+        }
+    }
+
+    void addListenerNanos(long nanos) {
+        if (isGestureActive) {
+            gestureMetrics.listenerNanos += nanos;
+        }
+        if (isFlingActive) {
+            flingMetrics.listenerNanos += nanos;
+        }
+    }
+
+    private void dispatch(CeilingMetrics metrics) {
+        metrics.durationNanos = System.nanoTime() - metrics.startNanos;
+        listener.onMetrics(metrics);
+    }
+}
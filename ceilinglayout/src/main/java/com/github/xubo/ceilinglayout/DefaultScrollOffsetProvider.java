@@ -0,0 +1,48 @@
+package com.github.xubo.ceilinglayout;
+
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：默认的联动目标View滚动距离提供者, 只判断是否到顶(到顶为0, 未到顶为1)
+ * 纵向LinearLayoutManager只检查第一个子View的位置与顶部, 不调用computeVerticalScrollOffset(可变高度时为估算值), 其他View按canScrollVertically(-1)
+ */
+public class DefaultScrollOffsetProvider implements ScrollOffsetProvider {
+
+    @Override
+    public int getScrollOffset(View target) {
+        if (target instanceof RecyclerView) {
+            RecyclerView recyclerView = (RecyclerView) target;
+            RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+            if (layoutManager instanceof LinearLayoutManager) {
+                LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+                if (linearLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL
+                        && !linearLayoutManager.getReverseLayout()) {
+                    return isLinearAtTop(recyclerView, linearLayoutManager) ? 0 : 1;
+                }
+            }
+        }
+        return target.canScrollVertically(-1) ? 1 : 0;
+    }
+
+    /**
+     * 第一个子View为第一项且顶部没有滑出内边距时到顶
+     * @param recyclerView
+     * @param layoutManager
+     * @return
+     */
+    private boolean isLinearAtTop(RecyclerView recyclerView, LinearLayoutManager layoutManager) {
+        if (layoutManager.getChildCount() == 0) {
+            return true;
+        }
+        View firstChild = layoutManager.getChildAt(0);
+        if (layoutManager.getPosition(firstChild) > 0) {
+            return false;
+        }
+        RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) firstChild.getLayoutParams();
+        return layoutManager.getDecoratedTop(firstChild) - params.topMargin >= recyclerView.getPaddingTop();
+    }
+}
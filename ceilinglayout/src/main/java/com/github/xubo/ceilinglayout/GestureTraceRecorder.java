@@ -0,0 +1,97 @@
+package com.github.xubo.ceilinglayout;
+
+import android.view.MotionEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：手势轨迹录制(原始触摸事件与帧时间), 录制时写入内存, 结束后一次写入文件
+ * <p>
+ * 文件格式(大端): int魔数 + int版本 + long开始时间(ms), 之后为连续记录:
+ * 触摸事件 byte类型 + int相对时间(ms) + byte动作 + byte动作手指索引 + byte手指数 + 每个手指(byte id + float x + float y);
+ * 帧 byte类型 + int相对时间(ms)
+ */
+class GestureTraceRecorder {
+    /** "CLTR" */
+    static final int MAGIC = 0x434C5452;
+    static final int VERSION = 1;
+    static final byte RECORD_MOTION = 1;
+    static final byte RECORD_FRAME = 2;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+    private final DataOutputStream output = new DataOutputStream(buffer);
+    private final long startTime;
+
+    /**
+     * @param startTime 开始时间(SystemClock.uptimeMillis)
+     */
+    GestureTraceRecorder(long startTime) {
+        this.startTime = startTime;
+        try {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(startTime);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 记录触摸事件(CeilingLayout坐标系)
+     * @param event
+     */
+    void recordMotionEvent(MotionEvent event) {
+        try {
+            output.writeByte(RECORD_MOTION);
+            output.writeInt((int) (event.getEventTime() - startTime));
+            output.writeByte(event.getActionMasked());
+            output.writeByte(event.getActionIndex());
+            int pointerCount = event.getPointerCount();
+            output.writeByte(pointerCount);
+            for (int i = 0; i < pointerCount; i++) {
+                output.writeByte(event.getPointerId(i));
+                output.writeFloat(event.getX(i));
+                output.writeFloat(event.getY(i));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 记录一帧
+     * @param frameTime 帧时间(AnimationUtils.currentAnimationTimeMillis)
+     */
+    void recordFrame(long frameTime) {
+        try {
+            output.writeByte(RECORD_FRAME);
+            output.writeInt((int) (frameTime - startTime));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 写入文件
+     * @param file
+     * @throws IOException
+     */
+    void writeTo(File file) throws IOException {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            buffer.writeTo(outputStream);
+        } finally {
+            outputStream.close();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.xubo.ceilinglayout;
+
+import android.support.v4.view.NestedScrollingChild;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：联动目标View缓存(弱引用, 不占用View的tag), 每个嵌套滑动发起View一条缓存,
+ * View从窗口移除时只移除与其相关的缓存(如ViewPager销毁的页面)
+ */
+class NestedTargetCache implements View.OnAttachStateChangeListener {
+    /** 嵌套滑动发起View -> 联动目标View */
+    private final Map<View, WeakReference<View>> targetMap = new WeakHashMap<View, WeakReference<View>>();
+    /** 最近一次查询的嵌套滑动发起View */
+    private WeakReference<View> lastTarget;
+    /** 最近一次查询的联动目标View */
+    private WeakReference<View> lastNestedTarget;
+    /** 自定义联动目标View解析器 */
+    private final List<NestedTargetResolver> resolvers = new ArrayList<NestedTargetResolver>();
+
+    /**
+     * 添加联动目标View解析器
+     * @param resolver
+     */
+    void addResolver(NestedTargetResolver resolver) {
+        if (!resolvers.contains(resolver)) {
+            resolvers.add(resolver);
+            clear();
+        }
+    }
+
+    /**
+     * 移除联动目标View解析器
+     * @param resolver
+     */
+    void removeResolver(NestedTargetResolver resolver) {
+        if (resolvers.remove(resolver)) {
+            clear();
+        }
+    }
+
+    /**
+     * 获取联动目标View
+     * @param target 嵌套滑动发起View
+     * @return
+     */
+    View get(View target) {
+        if (target == null) {
+            return null;
+        }
+        if (lastTarget != null && lastTarget.get() == target) {
+            return lastNestedTarget.get();
+        }
+        View nestedTarget;
+        WeakReference<View> nestedTargetRef = targetMap.get(target);
+        if (nestedTargetRef != null) {
+            nestedTarget = nestedTargetRef.get();
+        } else {
+            nestedTarget = resolve(target);
+            nestedTargetRef = put(target, nestedTarget);
+        }
+        lastTarget = new WeakReference<View>(target);
+        lastNestedTarget = nestedTargetRef;
+        return nestedTarget;
+    }
+
+    /**
+     * 预先解析View内的联动目标View(如ViewPager切换页面后预先解析各页面), 已缓存的不重复解析
+     * @param view
+     * @return 是否找到联动目标View
+     */
+    boolean warm(View view) {
+        if (targetMap.containsKey(view)) {
+            return true;
+        }
+        View nestedTarget = resolveSelf(view);
+        if (nestedTarget != null) {
+            put(view, nestedTarget);
+            return true;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                if (warm(viewGroup.getChildAt(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private WeakReference<View> put(View target, View nestedTarget) {
+        WeakReference<View> nestedTargetRef = new WeakReference<View>(nestedTarget);
+        targetMap.put(target, nestedTargetRef);
+        //嵌套滑动发起View或联动目标View从窗口移除时缓存失效, 先移除避免重复监听
+        target.removeOnAttachStateChangeListener(this);
+        target.addOnAttachStateChangeListener(this);
+        if (nestedTarget != null && nestedTarget != target) {
+            nestedTarget.removeOnAttachStateChangeListener(this);
+            nestedTarget.addOnAttachStateChangeListener(this);
+        }
+        return nestedTargetRef;
+    }
+
+    /**
+     * 清空缓存(View层级变化时调用)
+     */
+    void clear() {
+        for (Map.Entry<View, WeakReference<View>> entry : targetMap.entrySet()) {
+            entry.getKey().removeOnAttachStateChangeListener(this);
+            View nestedTarget = entry.getValue().get();
+            if (nestedTarget != null) {
+                nestedTarget.removeOnAttachStateChangeListener(this);
+            }
+        }
+        targetMap.clear();
+        lastTarget = null;
+        lastNestedTarget = null;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        v.removeOnAttachStateChangeListener(this);
+        evict(v);
+    }
+
+    /**
+     * 移除与View相关的缓存
+     * @param view 从窗口移除的View
+     */
+    private void evict(View view) {
+        Iterator<Map.Entry<View, WeakReference<View>>> iterator = targetMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<View, WeakReference<View>> entry = iterator.next();
+            View nestedTarget = entry.getValue().get();
+            if (entry.getKey() == view || nestedTarget == view) {
+                iterator.remove();
+            }
+        }
+        if (lastTarget != null && (lastTarget.get() == view || lastNestedTarget.get() == view)) {
+            lastTarget = null;
+            lastNestedTarget = null;
+        }
+    }
+
+    /**
+     * 查找联动目标View
+     * @return
+     */
+    private View resolve(View target) {
+        View selfNestedTarget = resolveSelf(target);
+        if (selfNestedTarget != null) {
+            return selfNestedTarget;
+        } else if (target instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) target;
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                View child = viewGroup.getChildAt(i);
+                View nestedTarget = resolve(child);
+                if (nestedTarget != null) {
+                    return nestedTarget;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 不查找子View, 只由解析器或View本身确定联动目标View
+     * @param view
+     * @return
+     */
+    private View resolveSelf(View view) {
+        for (int i = 0; i < resolvers.size(); i++) {
+            View nestedTarget = resolvers.get(i).getNestedTarget(view);
+            if (nestedTarget != null) {
+                return nestedTarget;
+            }
+        }
+        return view instanceof NestedScrollingChild ? view : null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.xubo.ceilinglayout;
+
+import android.view.View;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：联动目标View解析器(用于刷新控件等包裹了联动View的自定义容器)
+ */
+public interface NestedTargetResolver {
+    /**
+     * 查找联动目标View
+     * @param target 嵌套滑动发起View或其子View
+     * @return 联动目标View, 不处理该View时返回null
+     */
+    View getNestedTarget(View target);
+}
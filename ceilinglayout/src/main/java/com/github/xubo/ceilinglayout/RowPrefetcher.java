@@ -0,0 +1,117 @@
+package com.github.xubo.ceilinglayout;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：向上联动惯性中预先创建RecyclerView即将滑入的行, 放入缓存池
+ * (本身吸顶前每帧创建一行, 惯性交给RecyclerView时不再集中创建)
+ */
+class RowPrefetcher {
+    /** 最多预先创建的行数 */
+    private static final int MAX_PREFETCH_ROWS = 16;
+    /** 最多支持的行类型数, 超出时停止预先创建 */
+    private static final int MAX_VIEW_TYPES = 8;
+    /**
+     * 缓存池每种行类型默认最多保存的数量(RecycledViewPool.DEFAULT_MAX_SCRAP, 没有公开的读取方法),
+     * 超出部分放入缓存池时会被丢弃, 不预先创建
+     */
+    static final int POOL_MAX_SCRAP_DEFAULT = 5;
+
+    private final int[] viewTypes = new int[MAX_VIEW_TYPES];
+    /** 各行类型即将需要的数量 */
+    private final int[] requestCounts = new int[MAX_VIEW_TYPES];
+    /** 各行类型的缓存池是否已满(应用调小了缓存数量时, 放入后数量不变) */
+    private final boolean[] poolFulls = new boolean[MAX_VIEW_TYPES];
+    private int viewTypeCount;
+    private RecyclerView recyclerView;
+    private int nextPosition;
+    private int endPosition;
+
+    /**
+     * 按预测距离开始预先创建
+     * @param recyclerView
+     * @param distance 本身吸顶后RecyclerView预计滑动的距离
+     */
+    void start(RecyclerView recyclerView, int distance) {
+        cancel();
+        RecyclerView.Adapter adapter = recyclerView.getAdapter();
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (distance <= 0 || adapter == null || layoutManager == null || layoutManager.getChildCount() == 0) {
+            return;
+        }
+        //以当前最后一行的高度估算行数
+        View lastChild = layoutManager.getChildAt(layoutManager.getChildCount() - 1);
+        if (lastChild == null || lastChild.getHeight() <= 0) {
+            return;
+        }
+        int rowCount = Math.min(distance / lastChild.getHeight() + 1, MAX_PREFETCH_ROWS);
+        nextPosition = layoutManager.getPosition(lastChild) + 1;
+        endPosition = Math.min(nextPosition + rowCount, adapter.getItemCount());
+        if (nextPosition < endPosition) {
+            this.recyclerView = recyclerView;
+        }
+    }
+
+    boolean isActive() {
+        return recyclerView != null;
+    }
+
+    /**
+     * 预先创建下一个缓存池中不足的行
+     * @return 是否还有待创建的行
+     */
+    boolean prefetchNext() {
+        if (recyclerView == null) {
+            return false;
+        }
+        RecyclerView.Adapter adapter = recyclerView.getAdapter();
+        RecyclerView.RecycledViewPool recycledViewPool = recyclerView.getRecycledViewPool();
+        while (adapter != null && nextPosition < endPosition && nextPosition < adapter.getItemCount()) {
+            int viewType = adapter.getItemViewType(nextPosition++);
+            int typeIndex = indexOfViewType(viewType);
+            if (typeIndex == -1) {
+                break;
+            }
+            if (poolFulls[typeIndex] || requestCounts[typeIndex] >= POOL_MAX_SCRAP_DEFAULT) {
+                continue;
+            }
+            requestCounts[typeIndex]++;
+            int recycledCount = recycledViewPool.getRecycledViewCount(viewType);
+            if (recycledCount < requestCounts[typeIndex]) {
+                recycledViewPool.putRecycledView(adapter.createViewHolder(recyclerView, viewType));
+                if (recycledViewPool.getRecycledViewCount(viewType) == recycledCount) {
+                    poolFulls[typeIndex] = true;
+                }
+                if (nextPosition < endPosition) {
+                    return true;
+                }
+                break;
+            }
+        }
+        cancel();
+        return false;
+    }
+
+    void cancel() {
+        recyclerView = null;
+        viewTypeCount = 0;
+    }
+
+    private int indexOfViewType(int viewType) {
+        for (int index = 0; index < viewTypeCount; index++) {
+            if (viewTypes[index] == viewType) {
+                return index;
+            }
+        }
+        if (viewTypeCount == MAX_VIEW_TYPES) {
+            return -1;
+        }
+        viewTypes[viewTypeCount] = viewType;
+        requestCounts[viewTypeCount] = 0;
+        poolFulls[viewTypeCount] = false;
+        return viewTypeCount++;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.xubo.ceilinglayout;
+
+import android.view.View;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：联动目标View滚动距离提供者, 向下滑动时每个事件调用一次, 判断联动目标View是否已到顶(到顶后才展开头部)
+ */
+public interface ScrollOffsetProvider {
+    /**
+     * 获取联动目标View向上滚动的距离
+     * @param target 联动目标View
+     * @return 到顶返回0, 未到顶返回正数(只用于判断是否到顶, 可以不精确)
+     */
+    int getScrollOffset(View target);
+}
@@ -0,0 +1,308 @@
+package com.github.xubo.ceilinglayout.engine;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：吸顶联滑消费计算(不依赖Android, 可在JVM上直接测试与基准测试)
+ */
+public class CeilingScrollEngine {
+    private final Callback callback;
+    /** 联动惯性(本身与联动子View共用一条惯性曲线) */
+    private final SplineFling nestedFling;
+    private final SplineFling fling;
+    private float minimumFlingVelocity;
+    private float maximumFlingVelocity;
+    private int scrollRange;
+    private int lastFlingY;
+    private int lastNestedFlingY;
+    /** 联动惯性是否本身先滑动(向上), 否则联动子View先滑动(向下) */
+    private boolean isSelfFirst;
+
+    /**
+     * @param density 屏幕密度
+     * @param callback 偏移量读写回调
+     */
+    public CeilingScrollEngine(float density, Callback callback) {
+        this.callback = callback;
+        this.nestedFling = new SplineFling(density);
+        this.fling = new SplineFling(density);
+    }
+
+    /**
+     * 设置惯性速度范围
+     * @param minimumFlingVelocity
+     * @param maximumFlingVelocity
+     */
+    public void setFlingVelocityRange(float minimumFlingVelocity, float maximumFlingVelocity) {
+        this.minimumFlingVelocity = minimumFlingVelocity;
+        this.maximumFlingVelocity = maximumFlingVelocity;
+    }
+
+    public void setScrollRange(int scrollRange) {
+        this.scrollRange = scrollRange;
+    }
+
+    public int getScrollRange() {
+        return scrollRange;
+    }
+
+    /**
+     * 联动子View滑动前本身消费的距离
+     * @param dy 滑动距离(向上为正)
+     * @param nestedChild 联动子View是否实现了NestedScrollingChild
+     * @return 本身消费的距离
+     */
+    public int preScroll(int dy, boolean nestedChild) {
+        int scrollY = callback.getScrollOffset();
+        if (dy > 0 && scrollY < scrollRange) {  //向上滑动
+            if (scrollY + dy > scrollRange) {
+                dy = scrollRange - scrollY;
+            }
+            callback.scrollOffsetTo(scrollY + dy);
+            return dy;
+        } else if (dy < 0 && scrollY > 0) {  //向下滑动
+            if (nestedChild && callback.getChildScrollOffset() <= 0) {
+                if (scrollY + dy < 0) {
+                    dy = -scrollY;
+                }
+                callback.scrollOffsetTo(scrollY + dy);
+                return dy;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 联动子View滑动后本身消费剩余距离(联动子View到顶后继续向下时展开)
+     * @param dyUnconsumed 联动子View未消费的距离
+     * @return 本身消费的距离
+     */
+    public int nestedScroll(int dyUnconsumed) {
+        int scrollY = callback.getScrollOffset();
+        if (dyUnconsumed < 0 && scrollY > 0) {
+            int dy = Math.max(dyUnconsumed, -scrollY);
+            callback.scrollOffsetTo(scrollY + dy);
+            return dy;
+        }
+        return 0;
+    }
+
+    /**
+     * 本身滑动, 超出范围时截断
+     * @param diffY 滑动距离
+     * @return 是否被截断
+     */
+    public boolean overScroll(int diffY) {
+        int newScrollY = diffY + callback.getScrollOffset();
+        boolean clampedY = false;
+        if (newScrollY > scrollRange) {
+            newScrollY = scrollRange;
+            clampedY = true;
+        } else if (newScrollY < 0) {
+            newScrollY = 0;
+            clampedY = true;
+        }
+        callback.scrollOffsetTo(newScrollY);
+        return clampedY;
+    }
+
+    /**
+     * 联动子View惯性滑动前, 判断是否由本身接管
+     * 向上惯性由本身先滑动, 吸顶后把剩余速度交给联动子View;
+     * 向下惯性由联动子View先滑动, 到顶后剩余距离由本身滑动
+     * @param velocityY 惯性速度
+     * @param now 当前动画时间(ms)
+     * @return 是否由本身接管
+     */
+    public boolean nestedPreFling(float velocityY, long now) {
+        if (Math.abs(velocityY) >= minimumFlingVelocity) {
+            //滑动速度
+            int yVelocity = (int) (Math.abs(velocityY) <= maximumFlingVelocity ? velocityY : (velocityY > 0 ? maximumFlingVelocity : -maximumFlingVelocity));
+            //自身偏移量
+            int scrollOffset = callback.getScrollOffset();
+            if ((yVelocity > 0 && scrollOffset < scrollRange) || (yVelocity < 0 && scrollOffset > 0)) {
+                isSelfFirst = yVelocity > 0;
+                nestedFling.fling(0, yVelocity, now);
+                lastNestedFlingY = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 预测向上惯性中本身吸顶后由联动子View继续滑动的距离
+     * @param velocityY 惯性速度
+     * @return 向下惯性、本身已吸顶或惯性不足以吸顶时为0
+     */
+    public int predictChildFlingDistance(float velocityY) {
+        int scrollOffset = callback.getScrollOffset();
+        if (velocityY <= 0 || scrollOffset >= scrollRange) {
+            return 0;
+        }
+        int yVelocity = (int) Math.min(velocityY, maximumFlingVelocity);
+        int distance = nestedFling.getSplineFlingDistance(yVelocity) - (scrollRange - scrollOffset);
+        return Math.max(distance, 0);
+    }
+
+    /**
+     * 本身惯性滑动
+     * @param velocityY 惯性速度
+     * @param now 当前动画时间(ms)
+     */
+    public void fling(int velocityY, long now) {
+        int scrollY = callback.getScrollOffset();
+        fling.fling(scrollY, velocityY, now);
+        lastFlingY = scrollY;
+    }
+
+    /**
+     * 本身平滑滚动到指定偏移量(与惯性共用滑动计算, 逐帧回调onFlingScrolled)
+     * @param scrollOffset 目标偏移量, 超出范围时截断
+     * @param duration 时长(ms), 小于0时按惯性滑过该距离所需的时长
+     * @param now 当前动画时间(ms)
+     */
+    public void scrollTo(int scrollOffset, int duration, long now) {
+        int scrollY = callback.getScrollOffset();
+        scrollOffset = Math.max(0, Math.min(scrollOffset, scrollRange));
+        fling.scrollTo(scrollY, scrollOffset, duration, now);
+        lastFlingY = scrollY;
+    }
+
+    /**
+     * 计算惯性滑动
+     * @param now 当前动画时间(ms)
+     * @return 是否需要继续下一帧
+     */
+    public boolean computeScroll(long now) {
+        boolean running = false;
+        if (nestedFling.computeScrollOffset(now)) {
+            final int y = nestedFling.getCurrY();
+            int dy = y - lastNestedFlingY;
+            lastNestedFlingY = y;
+            if (dy != 0) {
+                computeNestedFling(dy);
+            }
+            running = !nestedFling.isFinished();
+        }
+        if (fling.computeScrollOffset(now)) {
+            final int y = fling.getCurrY();
+            int dy = y - lastFlingY;
+            if (dy != 0) {
+                final int oldScrollY = callback.getScrollOffset();
+                overScroll(dy);
+                final int scrolledDeltaY = callback.getScrollOffset() - oldScrollY;
+                callback.onFlingScrolled(scrolledDeltaY, dy - scrolledDeltaY);
+            }
+            lastFlingY = y;
+            running = true;
+        } else {
+            lastFlingY = 0;
+        }
+        return running;
+    }
+
+    /**
+     * 联动惯性一帧
+     * @param dy 本帧滑动距离
+     */
+    private void computeNestedFling(int dy) {
+        int scrollOffset = callback.getScrollOffset();
+        if (isSelfFirst) {  //向上滑动, 本身先滑动
+            int selfDy = Math.min(dy, scrollRange - scrollOffset);
+            if (selfDy > 0) {
+                callback.scrollOffsetTo(scrollOffset + selfDy);
+            }
+            if (callback.getScrollOffset() >= scrollRange) {  //已吸顶, 本帧剩余距离与剩余速度交给联动子View
+                if (dy > selfDy) {
+                    callback.scrollChildBy(dy - Math.max(selfDy, 0));
+                }
+                int velocity = (int) nestedFling.getCurrVelocity();
+                nestedFling.forceFinished(true);
+                if (velocity > 0) {
+                    callback.onFlingHandOff(velocity);
+                }
+            }
+        } else {  //向下滑动, 联动子View先滑动
+            if (callback.canChildScrollVertically(-1)) {
+                callback.scrollChildBy(dy);
+            } else {  //联动子View已到顶, 由本身滑动
+                int newScrollOffset = Math.max(scrollOffset + dy, 0);
+                callback.scrollOffsetTo(newScrollOffset);
+                if (newScrollOffset == 0) {
+                    nestedFling.forceFinished(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * 本身惯性滑动是否在进行中
+     * @return
+     */
+    public boolean isFlinging() {
+        return !fling.isFinished();
+    }
+
+    /**
+     * 联动惯性是否在进行中
+     * @return
+     */
+    public boolean isNestedFlinging() {
+        return !nestedFling.isFinished();
+    }
+
+    /**
+     * 停止所有惯性滑动
+     */
+    public void abortAnimation() {
+        nestedFling.forceFinished(true);
+        fling.forceFinished(true);
+    }
+
+    public interface Callback {
+        /**
+         * 本身当前偏移量
+         * @return
+         */
+        int getScrollOffset();
+
+        /**
+         * 本身滑动到指定偏移量
+         * @param scrollOffset
+         */
+        void scrollOffsetTo(int scrollOffset);
+
+        /**
+         * 联动子View当前偏移量(只用于判断是否到顶, 小于等于0为到顶)
+         * @return
+         */
+        int getChildScrollOffset();
+
+        /**
+         * 本身惯性滑动一帧后回调(用于向父View分发嵌套滑动)
+         * @param dyConsumed 本身消费的距离
+         * @param dyUnconsumed 未消费的距离
+         */
+        void onFlingScrolled(int dyConsumed, int dyUnconsumed);
+
+        /**
+         * 联动子View是否可以继续滑动
+         * @param direction 负数向上(内容顶部), 正数向下
+         * @return
+         */
+        boolean canChildScrollVertically(int direction);
+
+        /**
+         * 联动子View滑动
+         * @param dy
+         */
+        void scrollChildBy(int dy);
+
+        /**
+         * 本身吸顶后把剩余惯性速度交给联动子View
+         * @param velocityY 剩余速度(px/s)
+         */
+        void onFlingHandOff(int velocityY);
+    }
+}
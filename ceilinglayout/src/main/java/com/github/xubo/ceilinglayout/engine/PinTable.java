@@ -0,0 +1,61 @@
+package com.github.xubo.ceilinglayout.engine;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：多个吸顶子View的吸顶偏移量表(测量时按从上到下的顺序写入, 偏移量非递减, 查找为二分查找)
+ */
+public class PinTable {
+    private int[] pinOffsets = new int[1];
+    private int size;
+
+    /**
+     * 重置表大小, 容量不足时才重新分配
+     * @param size
+     */
+    public void setSize(int size) {
+        if (pinOffsets.length < size) {
+            pinOffsets = new int[size];
+        }
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 设置吸顶偏移量
+     * @param position 吸顶子View在表中的位置
+     * @param pinOffset 折叠偏移量达到该值时开始吸顶
+     */
+    public void setPinOffset(int position, int pinOffset) {
+        if (position > 0 && pinOffset < pinOffsets[position - 1]) {
+            throw new IllegalArgumentException("吸顶偏移量必须按从上到下的顺序非递减");
+        }
+        pinOffsets[position] = pinOffset;
+    }
+
+    public int getPinOffset(int position) {
+        return pinOffsets[position];
+    }
+
+    /**
+     * 查找指定折叠偏移量下最后一个吸顶的位置
+     * @param scrollOffset
+     * @return 没有吸顶返回-1
+     */
+    public int findPinnedPosition(int scrollOffset) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (pinOffsets[mid] <= scrollOffset) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.xubo.ceilinglayout.engine;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：与OverScroller一致的样条惯性曲线(纯Java实现, 不依赖Android, 滑动过程中无对象分配)
+ */
+public class SplineFling {
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private static final float INFLEXION = 0.35f;
+    private static final float START_TENSION = 0.5f;
+    private static final float END_TENSION = 1.0f;
+    private static final float P1 = START_TENSION * INFLEXION;
+    private static final float P2 = 1.0f - END_TENSION * (1.0f - INFLEXION);
+    private static final int NB_SAMPLES = 100;
+    private static final float[] SPLINE_POSITION = new float[NB_SAMPLES + 1];
+    /** 重力加速度(m/s^2) */
+    private static final float GRAVITY_EARTH = 9.80665f;
+    /** 默认滑动摩擦系数, 同ViewConfiguration.getScrollFriction() */
+    private static final float SCROLL_FRICTION = 0.015f;
+
+    static {
+        float xMin = 0.0f;
+        for (int i = 0; i < NB_SAMPLES; i++) {
+            final float alpha = (float) i / NB_SAMPLES;
+            float xMax = 1.0f;
+            float x, tx, coef;
+            while (true) {
+                x = xMin + (xMax - xMin) / 2.0f;
+                coef = 3.0f * x * (1.0f - x);
+                tx = coef * ((1.0f - x) * P1 + x * P2) + x * x * x;
+                if (Math.abs(tx - alpha) < 1E-5) {
+                    break;
+                }
+                if (tx > alpha) {
+                    xMax = x;
+                } else {
+                    xMin = x;
+                }
+            }
+            SPLINE_POSITION[i] = coef * ((1.0f - x) * START_TENSION + x) + x * x * x;
+        }
+        SPLINE_POSITION[NB_SAMPLES] = 1.0f;
+    }
+
+    private final float physicalCoeff;
+    private int start;
+    private int current;
+    private int finalY;
+    private int splineDistance;
+    private int duration;
+    private long startTime;
+    private float currVelocity;
+    private boolean finished = true;
+
+    /**
+     * @param density 屏幕密度(DisplayMetrics.density)
+     */
+    public SplineFling(float density) {
+        float ppi = density * 160.0f;
+        physicalCoeff = GRAVITY_EARTH * 39.37f * ppi * 0.84f;
+    }
+
+    /**
+     * 惯性滑动
+     * @param startY 开始位置
+     * @param velocityY 滑动速度(px/s)
+     * @param now 当前动画时间(ms)
+     */
+    public void fling(int startY, int velocityY, long now) {
+        start = startY;
+        current = startY;
+        finalY = startY;
+        splineDistance = 0;
+        duration = 0;
+        currVelocity = velocityY;
+        startTime = now;
+        finished = velocityY == 0;
+        if (velocityY != 0) {
+            double l = getSplineDeceleration(velocityY);
+            double decelMinusOne = DECELERATION_RATE - 1.0;
+            duration = (int) (1000.0 * Math.exp(l / decelMinusOne));
+            splineDistance = getSplineFlingDistance(velocityY);
+            finalY = startY + splineDistance;
+        }
+    }
+
+    /**
+     * 指定速度惯性滑动的总距离(带方向)
+     * @param velocityY 滑动速度(px/s)
+     * @return
+     */
+    public int getSplineFlingDistance(int velocityY) {
+        if (velocityY == 0) {
+            return 0;
+        }
+        double l = getSplineDeceleration(velocityY);
+        double decelMinusOne = DECELERATION_RATE - 1.0;
+        double totalDistance = SCROLL_FRICTION * physicalCoeff * Math.exp(DECELERATION_RATE / decelMinusOne * l);
+        return (int) (totalDistance * Math.signum(velocityY));
+    }
+
+    /**
+     * 滑动到指定位置, 使用与惯性相同的减速曲线
+     * @param startY 开始位置
+     * @param finalY 结束位置
+     * @param duration 时长(ms), 小于0时按惯性滑过该距离所需的时长
+     * @param now 当前动画时间(ms)
+     */
+    public void scrollTo(int startY, int finalY, int duration, long now) {
+        start = startY;
+        current = startY;
+        this.finalY = finalY;
+        splineDistance = finalY - startY;
+        currVelocity = 0;
+        startTime = now;
+        finished = splineDistance == 0;
+        if (duration < 0) {
+            duration = splineDistance == 0 ? 0 : getSplineFlingDuration(Math.abs(splineDistance));
+        }
+        this.duration = duration;
+    }
+
+    /**
+     * 计算当前位置
+     * @param now 当前动画时间(ms)
+     * @return 是否仍在滑动
+     */
+    public boolean computeScrollOffset(long now) {
+        if (finished) {
+            return false;
+        }
+        long currentTime = now - startTime;
+        if (currentTime >= duration) {
+            current = finalY;
+            currVelocity = 0;
+            finished = true;
+            return true;
+        }
+        final float t = (float) currentTime / duration;
+        final int index = (int) (NB_SAMPLES * t);
+        float distanceCoef = 1.0f;
+        float velocityCoef = 0.0f;
+        if (index < NB_SAMPLES) {
+            final float tInf = (float) index / NB_SAMPLES;
+            final float tSup = (float) (index + 1) / NB_SAMPLES;
+            final float dInf = SPLINE_POSITION[index];
+            final float dSup = SPLINE_POSITION[index + 1];
+            velocityCoef = (dSup - dInf) / (tSup - tInf);
+            distanceCoef = dInf + (t - tInf) * velocityCoef;
+        }
+        currVelocity = velocityCoef * splineDistance / duration * 1000.0f;
+        current = start + Math.round(distanceCoef * splineDistance);
+        return true;
+    }
+
+    /**
+     * 停止滑动
+     * @param finished
+     */
+    public void forceFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public int getCurrY() {
+        return current;
+    }
+
+    public int getFinalY() {
+        return finalY;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * 当前速度(px/s, 带方向)
+     * @return
+     */
+    public float getCurrVelocity() {
+        return currVelocity;
+    }
+
+    /**
+     * 惯性滑过指定距离所需的时长
+     * @param distance
+     * @return
+     */
+    private int getSplineFlingDuration(int distance) {
+        double decelMinusOne = DECELERATION_RATE - 1.0;
+        double l = Math.log(distance / (SCROLL_FRICTION * physicalCoeff)) * decelMinusOne / DECELERATION_RATE;
+        return (int) (1000.0 * Math.exp(l / decelMinusOne));
+    }
+
+    private double getSplineDeceleration(int velocity) {
+        return Math.log(INFLEXION * Math.abs(velocity) / (SCROLL_FRICTION * physicalCoeff));
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.xubo.ceilinglayout.engine;
+
+/**
+ * Author：xubo
+ * Time：2026-10-18
+ * Description：竖向速度估算(同VelocityTracker的二次最小二乘策略, 使用环形数组复用, 无对象分配)
+ */
+public class VelocityEstimator {
+    /** 最多参与计算的采样数 */
+    private static final int HISTORY_SIZE = 20;
+    /** 参与计算的采样时间范围(ms) */
+    private static final long HORIZON = 100;
+    /** 两次采样间隔超过该时间视为手指已停止(ms) */
+    private static final long ASSUME_POINTER_STOPPED_TIME = 40;
+
+    private final long[] times = new long[HISTORY_SIZE];
+    private final float[] positions = new float[HISTORY_SIZE];
+    /** 最新采样的索引 */
+    private int index;
+    /** 有效采样数 */
+    private int count;
+
+    /**
+     * 添加采样
+     * @param eventTime 事件时间(ms)
+     * @param y 竖向位置(已加上嵌套滑动偏移)
+     */
+    public void addSample(long eventTime, float y) {
+        if (count > 0 && eventTime - times[index] > ASSUME_POINTER_STOPPED_TIME) {
+            count = 0;
+        }
+        index = (index + 1) % HISTORY_SIZE;
+        times[index] = eventTime;
+        positions[index] = y;
+        if (count < HISTORY_SIZE) {
+            count++;
+        }
+    }
+
+    /**
+     * 清空采样
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * 计算当前速度
+     * @param maxVelocity 最大速度(px/s)
+     * @return 速度(px/s)
+     */
+    public float computeVelocity(float maxVelocity) {
+        if (count < 2) {
+            return 0;
+        }
+        final long newestTime = times[index];
+        //以最新采样时间为原点拟合 y = b0 + b1 * t + b2 * t^2, 当前速度即b1
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double sy = 0, sty = 0, st2y = 0;
+        int samples = 0;
+        for (int i = 0; i < count; i++) {
+            int sampleIndex = (index - i + HISTORY_SIZE) % HISTORY_SIZE;
+            long age = newestTime - times[sampleIndex];
+            if (age > HORIZON) {
+                break;
+            }
+            double t = -age / 1000.0;
+            double y = positions[sampleIndex];
+            double t2 = t * t;
+            s0 += 1;
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            sy += y;
+            sty += t * y;
+            st2y += t2 * y;
+            samples++;
+        }
+        double velocity;
+        if (samples >= 3) {
+            double det = determinant(s0, s1, s2, s1, s2, s3, s2, s3, s4);
+            if (det != 0) {
+                velocity = determinant(s0, sy, s2, s1, sty, s3, s2, st2y, s4) / det;
+            } else {
+                velocity = linearVelocity(s0, s1, s2, sy, sty);
+            }
+        } else if (samples == 2) {
+            velocity = linearVelocity(s0, s1, s2, sy, sty);
+        } else {
+            return 0;
+        }
+        if (velocity > maxVelocity) {
+            velocity = maxVelocity;
+        } else if (velocity < -maxVelocity) {
+            velocity = -maxVelocity;
+        }
+        return (float) velocity;
+    }
+
+    private static double linearVelocity(double s0, double s1, double s2, double sy, double sty) {
+        double det = s0 * s2 - s1 * s1;
+        if (det == 0) {
+            return 0;
+        }
+        return (s0 * sty - s1 * sy) / det;
+    }
+
+    private static double determinant(double a, double b, double c,
+                                      double d, double e, double f,
+                                      double g, double h, double i) {
+        return a * (e * i - f * h) - b * (d * i - f * g) + c * (d * h - e * g);
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.xubo.ceilinglayout;
+
+import android.app.Activity;
+import android.content.Context;
+import android.support.v4.view.NestedScrollingChildHelper;
+import android.support.v4.view.NestedScrollingParent2;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * CeilingLayout作为嵌套子View时, 转发联动子View的惯性(非触摸)嵌套滑动给父View
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27, qualifiers = "w360dp-h640dp-xxhdpi")
+public class CeilingLayoutNestedScrollTest {
+    private static final int HEADER_HEIGHT = 600;
+    private static final int CEILING_HEIGHT = 150;
+
+    private RecordingParent outerParent;
+    private CeilingLayout ceilingLayout;
+    /** 联动子View的嵌套滑动 */
+    private NestedScrollingChildHelper childHelper;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        outerParent = new RecordingParent(activity);
+        ceilingLayout = new CeilingLayout(activity);
+        ceilingLayout.setCeilingChildIndex(1);
+        ceilingLayout.addView(new View(activity), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HEADER_HEIGHT));
+        ceilingLayout.addView(new View(activity), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, CEILING_HEIGHT));
+        View contentView = new View(activity);
+        ceilingLayout.addView(contentView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        outerParent.addView(ceilingLayout, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        activity.setContentView(outerParent);
+        ShadowLooper.idleMainLooper();
+        childHelper = new NestedScrollingChildHelper(contentView);
+        childHelper.setNestedScrollingEnabled(true);
+    }
+
+    @Test
+    public void forwardedChildFling_keepsParentSessionAcrossRedraws() {
+        assertTrue(childHelper.startNestedScroll(ViewCompat.SCROLL_AXIS_VERTICAL, ViewCompat.TYPE_NON_TOUCH));
+        assertEquals(1, outerParent.nonTouchAcceptedCount);
+        for (int frame = 0; frame < 3; frame++) {
+            //每帧重绘都会调用computeScroll, 本身没有惯性时不能结束父View的会话
+            ceilingLayout.computeScroll();
+            assertTrue(ceilingLayout.hasNestedScrollingParent(ViewCompat.TYPE_NON_TOUCH));
+            //展开状态下向下的剩余距离本身不能消费, 如实交给父View
+            childHelper.dispatchNestedScroll(0, 0, 0, -40, null, ViewCompat.TYPE_NON_TOUCH);
+        }
+        assertEquals(0, outerParent.nonTouchStopCount);
+        assertEquals(3, outerParent.nonTouchScrollCount);
+        assertEquals(-120, outerParent.nonTouchDyUnconsumed);
+
+        childHelper.stopNestedScroll(ViewCompat.TYPE_NON_TOUCH);
+        assertEquals(1, outerParent.nonTouchStopCount);
+        assertFalse(ceilingLayout.hasNestedScrollingParent(ViewCompat.TYPE_NON_TOUCH));
+    }
+
+    @Test
+    public void selfScroll_stopsOwnSessionWhenFinished() {
+        ceilingLayout.scrollToOffset(HEADER_HEIGHT, 100);
+        assertEquals(1, outerParent.nonTouchAcceptedCount);
+        for (int frame = 0; frame < 20 && ceilingLayout.hasNestedScrollingParent(ViewCompat.TYPE_NON_TOUCH); frame++) {
+            ShadowLooper.idleMainLooper(16, TimeUnit.MILLISECONDS);
+            ceilingLayout.computeScroll();
+        }
+        assertEquals(HEADER_HEIGHT, ceilingLayout.getCollapseOffset());
+        assertEquals(1, outerParent.nonTouchStopCount);
+        assertFalse(ceilingLayout.hasNestedScrollingParent(ViewCompat.TYPE_NON_TOUCH));
+    }
+
+    /**
+     * 记录非触摸嵌套滑动的父View, 不消费任何距离
+     */
+    private static class RecordingParent extends FrameLayout implements NestedScrollingParent2 {
+        int nonTouchAcceptedCount;
+        int nonTouchStopCount;
+        int nonTouchScrollCount;
+        int nonTouchDyUnconsumed;
+
+        RecordingParent(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean onStartNestedScroll(View child, View target, int axes, int type) {
+            return (axes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0;
+        }
+
+        @Override
+        public void onNestedScrollAccepted(View child, View target, int axes, int type) {
+            if (type == ViewCompat.TYPE_NON_TOUCH) {
+                nonTouchAcceptedCount++;
+            }
+        }
+
+        @Override
+        public void onStopNestedScroll(View target, int type) {
+            if (type == ViewCompat.TYPE_NON_TOUCH) {
+                nonTouchStopCount++;
+            }
+        }
+
+        @Override
+        public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int type) {
+            if (type == ViewCompat.TYPE_NON_TOUCH) {
+                nonTouchScrollCount++;
+                nonTouchDyUnconsumed += dyUnconsumed;
+            }
+        }
+
+        @Override
+        public void onNestedPreScroll(View target, int dx, int dy, int[] consumed, int type) {
+        }
+
+        @Override
+        public boolean onStartNestedScroll(View child, View target, int axes) {
+            return onStartNestedScroll(child, target, axes, ViewCompat.TYPE_TOUCH);
+        }
+
+        @Override
+        public void onNestedScrollAccepted(View child, View target, int axes) {
+            onNestedScrollAccepted(child, target, axes, ViewCompat.TYPE_TOUCH);
+        }
+
+        @Override
+        public void onStopNestedScroll(View target) {
+            onStopNestedScroll(target, ViewCompat.TYPE_TOUCH);
+        }
+
+        @Override
+        public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+            onNestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, ViewCompat.TYPE_TOUCH);
+        }
+
+        @Override
+        public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+            onNestedPreScroll(target, dx, dy, consumed, ViewCompat.TYPE_TOUCH);
+        }
+
+        @Override
+        public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+            return false;
+        }
+
+        @Override
+        public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+            return false;
+        }
+
+        @Override
+        public int getNestedScrollAxes() {
+            return ViewCompat.SCROLL_AXIS_VERTICAL;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.xubo.ceilinglayout;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 手势轨迹录制与回放测试
+ * 回放现场录制的轨迹: ./gradlew :ceilinglayout:testDebugUnitTest --tests *GestureTraceReplayTest -PceilingTrace=轨迹文件路径,
+ * 统计结果写入轨迹文件路径加.txt的文件
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27, qualifiers = "w360dp-h640dp-xxhdpi")
+public class GestureTraceReplayTest {
+    private static final int HEADER_HEIGHT = 600;
+    private static final int CEILING_HEIGHT = 150;
+    private static final int ROW_HEIGHT = 180;
+    private static final int FRAME_MILLIS = 16;
+
+    private CeilingLayout ceilingLayout;
+    private RecyclerView recyclerView;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        ceilingLayout = new CeilingLayout(activity);
+        ceilingLayout.setCeilingChildIndex(1);
+        ceilingLayout.addView(new View(activity), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HEADER_HEIGHT));
+        ceilingLayout.addView(new View(activity), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, CEILING_HEIGHT));
+        recyclerView = new RecyclerView(activity);
+        recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        recyclerView.setAdapter(new RowAdapter());
+        ceilingLayout.addView(recyclerView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        activity.setContentView(ceilingLayout);
+        ShadowLooper.idleMainLooper();
+    }
+
+    @Test
+    public void recordedDrag_replaysThroughHeaderIntoList() throws Exception {
+        byte[] trace = recordDrag(1500, 900);
+        GestureTraceReplayer.Result result = GestureTraceReplayer.replay(new ByteArrayInputStream(trace), ceilingLayout, recyclerView);
+        assertEquals(HEADER_HEIGHT, ceilingLayout.getCollapseOffset());
+        assertEquals(HEADER_HEIGHT, result.selfConsumed);
+        assertTrue(result.childConsumed > 0);
+        assertTrue(result.movedFrameCount > 0);
+        assertTrue(result.frameCount >= result.movedFrameCount);
+    }
+
+    @Test
+    public void replay_traceFromProperty() throws Exception {
+        String path = System.getProperty("ceiling.trace");
+        Assume.assumeTrue(path != null);
+        InputStream inputStream = new FileInputStream(path);
+        try {
+            GestureTraceReplayer.Result result = GestureTraceReplayer.replay(inputStream, ceilingLayout, recyclerView);
+            writeReport(path + ".txt", result);
+            assertTrue(result.toString(), result.frameCount > 0);
+            assertTrue(result.toString(), result.movedFrameCount <= result.frameCount);
+            assertTrue(result.toString(), ceilingLayout.getCollapseOffset() >= 0);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private void writeReport(String path, GestureTraceReplayer.Result result) throws Exception {
+        OutputStream outputStream = new FileOutputStream(path);
+        try {
+            outputStream.write(result.toString().getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * 录制一次从列表区域向上拖动后抬起的手势, 每8ms一个触摸事件, 每16ms一帧, 抬起后再录制1s的帧
+     * @param startY
+     * @param distance
+     * @return
+     */
+    private byte[] recordDrag(int startY, int distance) {
+        long startTime = SystemClock.uptimeMillis();
+        GestureTraceRecorder recorder = new GestureTraceRecorder(startTime);
+        int moveCount = distance / 15;
+        long time = startTime;
+        recordEvent(recorder, startTime, time, MotionEvent.ACTION_DOWN, startY);
+        for (int i = 1; i <= moveCount; i++) {
+            time += 8;
+            recordEvent(recorder, startTime, time, MotionEvent.ACTION_MOVE, startY - i * 15);
+            if (i % 2 == 0) {
+                recorder.recordFrame(time);
+            }
+        }
+        recordEvent(recorder, startTime, time, MotionEvent.ACTION_UP, startY - moveCount * 15);
+        for (int i = 0; i < 1000 / FRAME_MILLIS; i++) {
+            time += FRAME_MILLIS;
+            recorder.recordFrame(time);
+        }
+        return recorder.toByteArray();
+    }
+
+    private void recordEvent(GestureTraceRecorder recorder, long downTime, long eventTime, int action, int y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, 540, y, 0);
+        recorder.recordMotionEvent(event);
+        event.recycle();
+    }
+
+    private static class RowAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View itemView = new View(parent.getContext());
+            itemView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            return new RecyclerView.ViewHolder(itemView) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 200;
+        }
+    }
+}
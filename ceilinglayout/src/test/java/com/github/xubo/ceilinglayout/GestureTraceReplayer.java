@@ -0,0 +1,166 @@
+package com.github.xubo.ceilinglayout;
+
+import android.os.SystemClock;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowMotionEvent;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 手势轨迹回放: 按录制的时间推进Robolectric主线程时钟, 把触摸事件分发给CeilingLayout, 每帧统计滑动距离与耗时
+ */
+class GestureTraceReplayer {
+    /** 轨迹文件最多记录的手指数 */
+    private static final int MAX_POINTERS = 10;
+    /** Robolectric 3.8的MotionEvent最多模拟两指, 其余手指忽略 */
+    private static final int MAX_REPLAY_POINTERS = 2;
+
+    static class Result {
+        /** 帧数 */
+        int frameCount;
+        /** 本身或联动RecyclerView发生滑动的帧数 */
+        int movedFrameCount;
+        /** 本身消费的距离 */
+        int selfConsumed;
+        /** 联动RecyclerView消费的距离 */
+        int childConsumed;
+        /** 每帧耗时总和(ns), 包含事件分发、主线程任务与computeScroll */
+        long frameNanos;
+        /** 最大单帧耗时(ns) */
+        long maxFrameNanos;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "frames=%d moved=%d self=%dpx child=%dpx avg=%.3fms max=%.3fms",
+                    frameCount, movedFrameCount, selfConsumed, childConsumed,
+                    frameCount == 0 ? 0 : frameNanos / 1e6 / frameCount, maxFrameNanos / 1e6);
+        }
+    }
+
+    /**
+     * 回放手势轨迹
+     * @param inputStream 轨迹文件内容
+     * @param ceilingLayout 已添加到窗口的CeilingLayout
+     * @param recyclerView CeilingLayout内的联动RecyclerView
+     * @return
+     * @throws IOException
+     */
+    static Result replay(InputStream inputStream, CeilingLayout ceilingLayout, RecyclerView recyclerView) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+        if (input.readInt() != GestureTraceRecorder.MAGIC) {
+            throw new IOException("不是手势轨迹文件");
+        }
+        int version = input.readInt();
+        if (version != GestureTraceRecorder.VERSION) {
+            throw new IOException("不支持的手势轨迹版本: " + version);
+        }
+        //录制开始时间, 回放时以当前时钟为起点
+        input.readLong();
+        long baseTime = SystemClock.uptimeMillis();
+        long downTime = baseTime;
+        int[] pointerIds = new int[MAX_POINTERS];
+        float[] pointerXs = new float[MAX_POINTERS];
+        float[] pointerYs = new float[MAX_POINTERS];
+
+        Result result = new Result();
+        int lastOffset = ceilingLayout.getCollapseOffset();
+        int lastChildOffset = recyclerView.computeVerticalScrollOffset();
+        //上一帧之后到本帧之间的事件分发耗时
+        long pendingNanos = 0;
+        int type;
+        while ((type = input.read()) != -1) {
+            long time = baseTime + input.readInt();
+            long startNanos = System.nanoTime();
+            advanceTo(time);
+            if (type == GestureTraceRecorder.RECORD_MOTION) {
+                int action = input.readByte();
+                int actionIndex = input.readByte();
+                int pointerCount = input.readByte();
+                for (int i = 0; i < pointerCount; i++) {
+                    pointerIds[i] = input.readByte();
+                    pointerXs[i] = input.readFloat();
+                    pointerYs[i] = input.readFloat();
+                }
+                if (action == MotionEvent.ACTION_DOWN) {
+                    downTime = time;
+                }
+                if (actionIndex >= MAX_REPLAY_POINTERS) {  //第三指及以后的按下抬起
+                    continue;
+                }
+                MotionEvent event = obtainEvent(downTime, time, action, actionIndex, Math.min(pointerCount, MAX_REPLAY_POINTERS),
+                        pointerIds, pointerXs, pointerYs);
+                ceilingLayout.dispatchTouchEvent(event);
+                event.recycle();
+                pendingNanos += System.nanoTime() - startNanos;
+            } else if (type == GestureTraceRecorder.RECORD_FRAME) {
+                ceilingLayout.computeScroll();
+                long frameNanos = System.nanoTime() - startNanos + pendingNanos;
+                pendingNanos = 0;
+                result.frameCount++;
+                result.frameNanos += frameNanos;
+                result.maxFrameNanos = Math.max(result.maxFrameNanos, frameNanos);
+                int offset = ceilingLayout.getCollapseOffset();
+                int childOffset = recyclerView.computeVerticalScrollOffset();
+                if (offset != lastOffset || childOffset != lastChildOffset) {
+                    result.movedFrameCount++;
+                }
+                result.selfConsumed += Math.abs(offset - lastOffset);
+                result.childConsumed += Math.abs(childOffset - lastChildOffset);
+                lastOffset = offset;
+                lastChildOffset = childOffset;
+            } else {
+                throw new IOException("未知的记录类型: " + type);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 创建触摸事件. Robolectric 3.8的MotionEvent只保存obtain(downTime, eventTime, action, x, y, metaState)的坐标,
+     * 第二指、手指id与动作索引通过ShadowMotionEvent设置
+     * @param downTime
+     * @param time
+     * @param action 不含动作索引的动作
+     * @param actionIndex
+     * @param pointerCount 不超过两指
+     * @param pointerIds
+     * @param pointerXs
+     * @param pointerYs
+     * @return
+     */
+    private static MotionEvent obtainEvent(long downTime, long time, int action, int actionIndex, int pointerCount,
+                                           int[] pointerIds, float[] pointerXs, float[] pointerYs) {
+        MotionEvent event = MotionEvent.obtain(downTime, time, action, pointerXs[0], pointerYs[0], 0);
+        ShadowMotionEvent shadowEvent = Shadows.shadowOf(event);
+        if (pointerCount > 1) {
+            shadowEvent.setPointer2(pointerXs[1], pointerYs[1]);
+            shadowEvent.setPointerIds(pointerIds[0], pointerIds[1]);
+        } else {
+            shadowEvent.setPointerIds(pointerIds[0], pointerIds[0] + 1);
+        }
+        shadowEvent.setPointerIndex(actionIndex);
+        return event;
+    }
+
+    /**
+     * 推进主线程时钟到指定时间, 执行到期的任务(动画帧、RecyclerView惯性等)
+     * @param time
+     */
+    private static void advanceTo(long time) {
+        long delay = time - SystemClock.uptimeMillis();
+        if (delay > 0) {
+            ShadowLooper.idleMainLooper(delay, TimeUnit.MILLISECONDS);
+        } else {
+            ShadowLooper.runUiThreadTasks();
+        }
+    }
+}
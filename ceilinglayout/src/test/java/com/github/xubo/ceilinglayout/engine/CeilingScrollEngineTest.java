@@ -0,0 +1,177 @@
+package com.github.xubo.ceilinglayout.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 吸顶联滑消费计算单元测试
+ */
+public class CeilingScrollEngineTest {
+    private static final int SCROLL_RANGE = 300;
+
+    private int scrollOffset;
+    private int childScrollOffset;
+    private int flingUnconsumed;
+    private int handOffVelocity;
+    private CeilingScrollEngine engine;
+
+    @Before
+    public void setUp() {
+        scrollOffset = 0;
+        childScrollOffset = 0;
+        flingUnconsumed = 0;
+        handOffVelocity = 0;
+        engine = new CeilingScrollEngine(3.0f, new CeilingScrollEngine.Callback() {
+            @Override
+            public int getScrollOffset() {
+                return scrollOffset;
+            }
+
+            @Override
+            public void scrollOffsetTo(int offset) {
+                scrollOffset = offset;
+            }
+
+            @Override
+            public int getChildScrollOffset() {
+                return childScrollOffset;
+            }
+
+            @Override
+            public void onFlingScrolled(int dyConsumed, int dyUnconsumed) {
+                flingUnconsumed += dyUnconsumed;
+            }
+
+            @Override
+            public boolean canChildScrollVertically(int direction) {
+                return direction < 0 ? childScrollOffset > 0 : true;
+            }
+
+            @Override
+            public void scrollChildBy(int dy) {
+                childScrollOffset = Math.max(childScrollOffset + dy, 0);
+            }
+
+            @Override
+            public void onFlingHandOff(int velocityY) {
+                handOffVelocity = velocityY;
+            }
+        });
+        engine.setFlingVelocityRange(150, 24000);
+        engine.setScrollRange(SCROLL_RANGE);
+    }
+
+    @Test
+    public void preScroll_upConsumesUntilCeiling() {
+        assertEquals(200, engine.preScroll(200, true));
+        assertEquals(100, engine.preScroll(200, true));
+        assertEquals(0, engine.preScroll(200, true));
+        assertEquals(SCROLL_RANGE, scrollOffset);
+    }
+
+    @Test
+    public void preScroll_downOnlyWhenChildAtTop() {
+        scrollOffset = SCROLL_RANGE;
+        childScrollOffset = 50;
+        assertEquals(0, engine.preScroll(-100, true));
+        childScrollOffset = 0;
+        assertEquals(0, engine.preScroll(-100, false));
+        assertEquals(-100, engine.preScroll(-100, true));
+        assertEquals(-200, engine.preScroll(-500, true));
+        assertEquals(0, scrollOffset);
+    }
+
+    @Test
+    public void nestedScroll_expandsWithChildUnconsumedDistance() {
+        scrollOffset = 120;
+        assertEquals(0, engine.nestedScroll(50));
+        assertEquals(-100, engine.nestedScroll(-100));
+        assertEquals(-20, engine.nestedScroll(-100));
+        assertEquals(0, engine.nestedScroll(-100));
+        assertEquals(0, scrollOffset);
+    }
+
+    @Test
+    public void overScroll_clampsToRange() {
+        assertFalse(engine.overScroll(100));
+        assertTrue(engine.overScroll(1000));
+        assertEquals(SCROLL_RANGE, scrollOffset);
+        assertTrue(engine.overScroll(-1000));
+        assertEquals(0, scrollOffset);
+    }
+
+    @Test
+    public void fling_settlesAtCeilingAndReportsUnconsumed() {
+        engine.fling(8000, 0);
+        long now = 0;
+        while (engine.computeScroll(now)) {
+            now += 16;
+        }
+        assertFalse(engine.isFlinging());
+        assertEquals(SCROLL_RANGE, scrollOffset);
+        assertTrue(flingUnconsumed > 0);
+    }
+
+    @Test
+    public void nestedPreFling_upFlingCollapsesThenHandsOffVelocity() {
+        assertTrue(engine.nestedPreFling(8000, 0));
+        runFrames();
+        assertEquals(SCROLL_RANGE, scrollOffset);
+        assertTrue(handOffVelocity > 0);
+        assertTrue(handOffVelocity < 8000);
+        assertTrue(childScrollOffset > 0);
+    }
+
+    @Test
+    public void nestedPreFling_downFlingScrollsChildThenExpands() {
+        scrollOffset = SCROLL_RANGE;
+        childScrollOffset = 200;
+        assertTrue(engine.nestedPreFling(-8000, 0));
+        runFrames();
+        assertEquals(0, childScrollOffset);
+        assertEquals(0, scrollOffset);
+        assertEquals(0, handOffVelocity);
+    }
+
+    @Test
+    public void nestedPreFling_notTakenOverWhenHeaderCannotMove() {
+        scrollOffset = SCROLL_RANGE;
+        assertFalse(engine.nestedPreFling(8000, 0));
+        scrollOffset = 0;
+        assertFalse(engine.nestedPreFling(-8000, 0));
+        assertFalse(engine.nestedPreFling(100, 0));
+    }
+
+    @Test
+    public void predictChildFlingDistance_matchesHandOffRemainder() {
+        int predicted = engine.predictChildFlingDistance(8000);
+        assertTrue(predicted > 0);
+        assertTrue(engine.nestedPreFling(8000, 0));
+        runFrames();
+        //吸顶后子View在交接帧滑过的距离 + 剩余速度的惯性距离 ≈ 预测距离(样条分段速度有误差)
+        int handOffDistance = new SplineFling(3.0f).getSplineFlingDistance(handOffVelocity);
+        assertEquals(predicted, childScrollOffset + handOffDistance, predicted * 0.1);
+        assertEquals(0, engine.predictChildFlingDistance(-8000));
+    }
+
+    @Test
+    public void scrollTo_landsExactlyOnClampedTarget() {
+        engine.scrollTo(1000, -1, 0);
+        runFrames();
+        assertEquals(SCROLL_RANGE, scrollOffset);
+        assertEquals(0, flingUnconsumed);
+        engine.scrollTo(120, 200, 0);
+        assertTrue(engine.isFlinging());
+        runFrames();
+        assertEquals(120, scrollOffset);
+    }
+
+    private void runFrames() {
+        long now = 0;
+        while (engine.computeScroll(now)) {
+            now += 16;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.xubo.ceilinglayout.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 吸顶偏移量表查找单元测试
+ */
+public class PinTableTest {
+
+    @Test
+    public void findPinnedPosition_returnsLastReachedPin() {
+        PinTable pinTable = new PinTable();
+        pinTable.setSize(3);
+        pinTable.setPinOffset(0, 100);
+        pinTable.setPinOffset(1, 250);
+        pinTable.setPinOffset(2, 400);
+        assertEquals(-1, pinTable.findPinnedPosition(0));
+        assertEquals(-1, pinTable.findPinnedPosition(99));
+        assertEquals(0, pinTable.findPinnedPosition(100));
+        assertEquals(0, pinTable.findPinnedPosition(249));
+        assertEquals(1, pinTable.findPinnedPosition(250));
+        assertEquals(2, pinTable.findPinnedPosition(400));
+    }
+
+    @Test
+    public void findPinnedPosition_adjacentHeadersPinTogether() {
+        PinTable pinTable = new PinTable();
+        pinTable.setSize(3);
+        pinTable.setPinOffset(0, 0);
+        pinTable.setPinOffset(1, 200);
+        pinTable.setPinOffset(2, 200);
+        assertEquals(0, pinTable.findPinnedPosition(0));
+        assertEquals(2, pinTable.findPinnedPosition(200));
+        //缩小后只查找有效范围
+        pinTable.setSize(1);
+        assertEquals(0, pinTable.findPinnedPosition(200));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setPinOffset_rejectsDecreasingOffset() {
+        PinTable pinTable = new PinTable();
+        pinTable.setSize(2);
+        pinTable.setPinOffset(0, 300);
+        pinTable.setPinOffset(1, 200);
+    }
+}
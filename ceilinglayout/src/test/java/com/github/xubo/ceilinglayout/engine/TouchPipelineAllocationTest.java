@@ -0,0 +1,117 @@
+package com.github.xubo.ceilinglayout.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * 拖动手势(速度采样 + 滑动消费)内存分配测试
+ */
+public class TouchPipelineAllocationTest {
+    private static final int EVENT_COUNT = 1000;
+    private static final int SCROLL_RANGE = 600;
+
+    /** 录制的拖动手势: 事件时间与竖向位置 */
+    private final long[] eventTimes = new long[EVENT_COUNT];
+    private final float[] eventYs = new float[EVENT_COUNT];
+
+    private int scrollOffset;
+    private CeilingScrollEngine engine;
+    private VelocityEstimator velocityEstimator;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            eventTimes[i] = i * 8L;
+            //先上滑再下滑, 来回拖动
+            eventYs[i] = 1500 - 600 * (float) Math.sin(i / 80.0);
+        }
+        engine = new CeilingScrollEngine(3.0f, new CeilingScrollEngine.Callback() {
+            @Override
+            public int getScrollOffset() {
+                return scrollOffset;
+            }
+
+            @Override
+            public void scrollOffsetTo(int offset) {
+                scrollOffset = offset;
+            }
+
+            @Override
+            public int getChildScrollOffset() {
+                return 0;
+            }
+
+            @Override
+            public void onFlingScrolled(int dyConsumed, int dyUnconsumed) {
+            }
+
+            @Override
+            public boolean canChildScrollVertically(int direction) {
+                return false;
+            }
+
+            @Override
+            public void scrollChildBy(int dy) {
+            }
+
+            @Override
+            public void onFlingHandOff(int velocityY) {
+            }
+        });
+        engine.setScrollRange(SCROLL_RANGE);
+        velocityEstimator = new VelocityEstimator();
+    }
+
+    @Test
+    public void drag_allocatesNothingAfterWarmUp() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 20; i++) {
+            replayDrag();
+        }
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        float velocity = replayDrag();
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+        assertEquals("拖动过程中分配了" + allocated + "字节", 0, allocated);
+        assertTrue(velocity != 0);
+    }
+
+    @Test
+    public void velocity_matchesLinearDrag() {
+        velocityEstimator.clear();
+        for (int i = 0; i < 10; i++) {
+            //每8ms移动16px, 即2000px/s
+            velocityEstimator.addSample(i * 8L, 1000 - i * 16);
+        }
+        assertEquals(-2000, velocityEstimator.computeVelocity(8000), 1);
+        assertEquals(-1500, velocityEstimator.computeVelocity(1500), 0);
+    }
+
+    @Test
+    public void velocity_resetsAfterPointerStopped() {
+        velocityEstimator.clear();
+        velocityEstimator.addSample(0, 0);
+        velocityEstimator.addSample(8, 100);
+        velocityEstimator.addSample(200, 100);
+        assertEquals(0, velocityEstimator.computeVelocity(8000), 0);
+    }
+
+    private float replayDrag() {
+        scrollOffset = 0;
+        velocityEstimator.clear();
+        int lastY = (int) eventYs[0];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            int y = (int) eventYs[i];
+            int diffY = lastY - y;
+            engine.preScroll(diffY, true);
+            engine.overScroll(diffY);
+            velocityEstimator.addSample(eventTimes[i], eventYs[i]);
+            lastY = y;
+        }
+        return velocityEstimator.computeVelocity(24000);
+    }
+}